@@ -0,0 +1,236 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.attributes;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import dsatool.resources.ResourceManager;
+import jsonant.value.JSONArray;
+import jsonant.value.JSONObject;
+
+class AttributeModel {
+	final int size;
+	final String[] names;
+	final String[] badAttributes;
+	final String[] goodAttributes;
+
+	final int[] mods;
+	final int[] mins;
+	final int[] maxs;
+	final int[] requirements;
+	final int[] values;
+	final int[] costs;
+
+	private final int[] badCosts;
+	private final int[] goodCosts;
+	private final int[] committed;
+	private final boolean[] dirty;
+
+	private final Map<String, Integer> indices = new HashMap<>();
+
+	private final JSONObject actualAttributes;
+	private final JSONObject actualPros;
+	private final JSONObject actualCons;
+
+	AttributeModel(final JSONObject generationState, final int min, final int max) {
+		this(generationState, ResourceManager.getResource("data/Eigenschaften"), ResourceManager.getResource("data/Vorteile"),
+				ResourceManager.getResource("data/Nachteile"), min, max);
+	}
+
+	AttributeModel(final JSONObject generationState, final JSONObject attributes, final JSONObject pros, final JSONObject cons, final int min,
+			final int max) {
+		final JSONObject hero = generationState.getObj("Held");
+		actualAttributes = hero.getObj("Eigenschaften");
+		actualPros = hero.getObj("Vorteile");
+		actualCons = hero.getObj("Nachteile");
+
+		size = attributes.size();
+		names = new String[size];
+		badAttributes = new String[size];
+		goodAttributes = new String[size];
+		badCosts = new int[size];
+		goodCosts = new int[size];
+		mods = new int[size];
+		mins = new int[size];
+		maxs = new int[size];
+		requirements = new int[size];
+		values = new int[size];
+		costs = new int[size];
+		committed = new int[size];
+		dirty = new boolean[size];
+
+		int i = 0;
+		for (final String attributeName : attributes.keySet()) {
+			final JSONObject attribute = attributes.getObj(attributeName);
+			names[i] = attributeName;
+			indices.put(attributeName, i);
+			badAttributes[i] = attribute.getString("Miserable Eigenschaft");
+			goodAttributes[i] = attribute.getString("Herausragende Eigenschaft");
+			badCosts[i] = cons.getObj(badAttributes[i]).getIntOrDefault("Kosten", 1);
+			goodCosts[i] = pros.getObj(goodAttributes[i]).getIntOrDefault("Kosten", 1);
+			++i;
+		}
+
+		collectMods(generationState);
+		collectRequirements(generationState);
+
+		for (i = 0; i < size; ++i) {
+			mins[i] = min + mods[i];
+			maxs[i] = max + mods[i];
+			final JSONObject actualAttribute = actualAttributes.getObj(names[i]);
+			values[i] = Math.max(actualAttribute.getIntOrDefault("Wert", 0), Math.max(mins[i], requirements[i]));
+			costs[i] = cost(i, mods[i], values[i], false);
+			committed[i] = mods[i];
+			dirty[i] = true;
+		}
+	}
+
+	int change(final int index, final int newValue) {
+		final int difference = cost(index, values[index], newValue, true);
+		values[index] = newValue;
+		costs[index] += difference;
+		dirty[index] = true;
+		return difference;
+	}
+
+	private void collectMods(final JSONObject generationState) {
+		for (final String current : new String[] { "Rasse", "Kultur", "Profession" }) {
+			final JSONObject attributes = generationState.getObj(current).getObj("Eigenschaften");
+			for (final String attribute : attributes.keySet()) {
+				final Integer index = indices.get(attribute);
+				if (index != null) {
+					mods[index] += attributes.getInt(attribute);
+				}
+			}
+		}
+	}
+
+	private void collectRequirements(final JSONObject generationState) {
+		final int[] fromChoice = new int[size];
+		for (final String current : new String[] { "Rasse", "Kultur", "Profession", "Breitgefächerte Bildung", "Veteran" }) {
+			if (!generationState.containsKey(current)) {
+				continue;
+			}
+			final JSONObject prerequisites = generationState.getObj(current).getObj("Voraussetzungen");
+			final JSONObject attributes = prerequisites.getObj("Eigenschaften");
+			for (final String attribute : attributes.keySet()) {
+				final Integer index = indices.get(attribute);
+				if (index != null) {
+					requirements[index] = Math.max(requirements[index], attributes.getInt(attribute));
+				}
+			}
+			if (prerequisites.containsKey("Wahl")) {
+				Arrays.fill(fromChoice, Integer.MAX_VALUE);
+				final JSONArray choices = prerequisites.getArr("Wahl");
+				for (int i = 0; i < choices.size(); ++i) {
+					final JSONObject choice = choices.getObj(i);
+					if (choice.containsKey("Eigenschaften")) {
+						final JSONObject choiceAttributes = choice.getObj("Eigenschaften");
+						for (final String attribute : choiceAttributes.keySet()) {
+							final Integer index = indices.get(attribute);
+							if (index != null) {
+								fromChoice[index] = Math.min(fromChoice[index], choiceAttributes.getInt(attribute));
+							}
+						}
+					}
+				}
+				for (int i = 0; i < size; ++i) {
+					if (fromChoice[i] != Integer.MAX_VALUE) {
+						requirements[i] = Math.max(requirements[i], fromChoice[i]);
+					}
+				}
+			}
+		}
+	}
+
+	void commit() {
+		for (int i = 0; i < size; ++i) {
+			if (dirty[i]) {
+				commit(i);
+			}
+		}
+	}
+
+	private void commit(final int index) {
+		final JSONObject actualAttribute = actualAttributes.getObj(names[index]);
+		actualAttribute.put("temporary:GP", costs[index]);
+		actualAttribute.put("Wert", values[index]);
+		actualAttribute.put("Start", values[index]);
+
+		final boolean wasBad = committed[index] == mins[index] - 1;
+		final boolean isBad = values[index] == mins[index] - 1;
+		if (wasBad && !isBad) {
+			actualCons.removeKey(badAttributes[index]);
+		} else if (isBad && !wasBad) {
+			actualCons.put(badAttributes[index], new JSONObject(actualCons));
+		}
+
+		final boolean wasGood = committed[index] > maxs[index];
+		final boolean isGood = values[index] > maxs[index];
+		if (wasGood && !isGood) {
+			actualPros.removeKey(goodAttributes[index]);
+		} else if (isGood && committed[index] != values[index]) {
+			final JSONObject newPro = new JSONObject(actualPros);
+			newPro.put("Stufe", values[index] - maxs[index]);
+			actualPros.put(goodAttributes[index], newPro);
+		}
+
+		committed[index] = values[index];
+		dirty[index] = false;
+	}
+
+	private int cost(final int index, int oldValue, int newValue, final boolean lowerBound) {
+		int difference = 0;
+		if (lowerBound && oldValue == mins[index] - 1) {
+			difference += badCosts[index];
+			oldValue = mins[index];
+		}
+		if (lowerBound && newValue == mins[index] - 1) {
+			difference -= badCosts[index];
+			newValue = mins[index];
+		}
+		if (oldValue > maxs[index]) {
+			final int n = oldValue - maxs[index];
+			difference -= (goodCosts[index] + n - 1) * n;
+		}
+		if (newValue > maxs[index]) {
+			final int n = newValue - maxs[index];
+			difference += (goodCosts[index] + n - 1) * n;
+		}
+		difference += newValue - oldValue;
+		return difference;
+	}
+
+	int badCost(final int index) {
+		return badCosts[index];
+	}
+
+	int costOf(final int index, final int value) {
+		return cost(index, mods[index], value, true);
+	}
+
+	int extreme(final int index) {
+		if (values[index] < mins[index]) return -1;
+		if (values[index] > maxs[index]) return values[index] - maxs[index];
+		return 0;
+	}
+
+	int getPreviousCost(final int index) {
+		return actualAttributes.getObj(names[index]).getIntOrDefault("temporary:GP", 0);
+	}
+}
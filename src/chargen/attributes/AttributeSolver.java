@@ -0,0 +1,190 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.attributes;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import dsatool.resources.Settings;
+import jsonant.value.JSONObject;
+
+public class AttributeSolver {
+	public enum Objective {
+		MIN_GP("Möglichst wenige GP"), KEY_ATTRIBUTES("Voraussetzungen der Profession maximieren"), NO_BAD_ATTRIBUTES("Keine Miserablen Eigenschaften");
+
+		private final String name;
+
+		private Objective(final String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	private static final int NONE = Integer.MIN_VALUE;
+
+	static int[] solve(final AttributeModel model, final int cap, final int budget, final int conCap, final boolean[] keyAttributes,
+			final Objective objective) {
+		final int n = model.size;
+		final int[] lower = new int[n];
+		final int[] upper = new int[n];
+		final boolean allowBad = objective == Objective.MIN_GP && conCap > 0;
+
+		int pointRange = cap;
+		int costRange = budget;
+		for (int i = 0; i < n; ++i) {
+			lower[i] = Math.max(model.requirements[i], model.mins[i] - (allowBad ? 1 : 0));
+			pointRange -= points(model, i, lower[i]);
+			costRange -= model.costOf(i, lower[i]);
+		}
+		if (pointRange < 0 || costRange < 0) return null;
+		final int conRange = allowBad ? conCap : 0;
+
+		for (int i = 0; i < n; ++i) {
+			final int lowestCost = model.costOf(i, lower[i]);
+			upper[i] = lower[i];
+			while (upper[i] < 99 && model.costOf(i, upper[i] + 1) - lowestCost <= costRange) {
+				++upper[i];
+			}
+		}
+
+		int[][][] best = new int[pointRange + 1][costRange + 1][conRange + 1];
+		for (final int[][] row : best) {
+			for (final int[] cell : row) {
+				Arrays.fill(cell, NONE);
+			}
+		}
+		best[0][0][0] = 0;
+		final short[][][][] choices = new short[n][pointRange + 1][costRange + 1][conRange + 1];
+
+		for (int i = 0; i < n; ++i) {
+			final int[][][] next = new int[pointRange + 1][costRange + 1][conRange + 1];
+			for (final int[][] row : next) {
+				for (final int[] cell : row) {
+					Arrays.fill(cell, NONE);
+				}
+			}
+			for (int value = lower[i]; value <= upper[i]; ++value) {
+				final int p = points(model, i, value) - points(model, i, lower[i]);
+				final int c = model.costOf(i, value) - model.costOf(i, lower[i]);
+				final int k = con(model, i, value);
+				if (k > conRange) {
+					continue;
+				}
+				final int score = score(model, i, value, keyAttributes, objective);
+				for (int usedPoints = 0; usedPoints + p <= pointRange; ++usedPoints) {
+					final int[][] row = best[usedPoints];
+					final int[][] nextRow = next[usedPoints + p];
+					final short[][] choiceRow = choices[i][usedPoints + p];
+					for (int usedCost = 0; usedCost + c <= costRange; ++usedCost) {
+						final int[] cell = row[usedCost];
+						final int[] nextCell = nextRow[usedCost + c];
+						final short[] choiceCell = choiceRow[usedCost + c];
+						for (int usedCon = 0; usedCon + k <= conRange; ++usedCon) {
+							if (cell[usedCon] != NONE && cell[usedCon] + score > nextCell[usedCon + k]) {
+								nextCell[usedCon + k] = cell[usedCon] + score;
+								choiceCell[usedCon + k] = (short) (value - lower[i]);
+							}
+						}
+					}
+				}
+			}
+			best = next;
+		}
+
+		int bestPoints = -1;
+		int bestCost = -1;
+		int bestCon = -1;
+		for (int usedCost = 0; usedCost <= costRange; ++usedCost) {
+			for (int usedPoints = pointRange; usedPoints >= 0; --usedPoints) {
+				for (int usedCon = 0; usedCon <= conRange; ++usedCon) {
+					if (best[usedPoints][usedCost][usedCon] != NONE
+							&& (bestPoints < 0 || best[usedPoints][usedCost][usedCon] > best[bestPoints][bestCost][bestCon])) {
+						bestPoints = usedPoints;
+						bestCost = usedCost;
+						bestCon = usedCon;
+					}
+				}
+			}
+		}
+		if (bestPoints < 0) return null;
+
+		final int[] result = new int[n];
+		for (int i = n - 1; i >= 0; --i) {
+			result[i] = lower[i] + choices[i][bestPoints][bestCost][bestCon];
+			bestPoints -= points(model, i, result[i]) - points(model, i, lower[i]);
+			bestCost -= model.costOf(i, result[i]) - model.costOf(i, lower[i]);
+			bestCon -= con(model, i, result[i]);
+		}
+		return result;
+	}
+
+	private static int con(final AttributeModel model, final int index, final int value) {
+		return value == model.mins[index] - 1 ? Math.abs(model.badCost(index)) : 0;
+	}
+
+	private static int points(final AttributeModel model, final int index, final int value) {
+		return Math.min(value, model.maxs[index]) - model.mods[index];
+	}
+
+	private static int score(final AttributeModel model, final int index, final int value, final boolean[] keyAttributes, final Objective objective) {
+		return switch (objective) {
+			case MIN_GP -> 0;
+			case KEY_ATTRIBUTES -> keyAttributes != null && keyAttributes[index] ? Math.min(value, model.maxs[index]) : 0;
+			case NO_BAD_ATTRIBUTES -> points(model, index, value);
+		};
+	}
+
+	private final AttributeModel model;
+	private final boolean[] keyAttributes;
+
+	public AttributeSolver(final JSONObject generationState) {
+		this(new AttributeModel(generationState, Settings.getSettingIntOrDefault(8, "Heldenerschaffung", "Minimum für Eigenschaften"),
+				Settings.getSettingIntOrDefault(14, "Heldenerschaffung", "Maximum für Eigenschaften")), generationState);
+	}
+
+	AttributeSolver(final AttributeModel model, final JSONObject generationState) {
+		this.model = model;
+		keyAttributes = new boolean[model.size];
+		final JSONObject profession = generationState.getObjOrDefault("Profession", null);
+		if (profession != null) {
+			final JSONObject required = profession.getObj("Voraussetzungen").getObj("Eigenschaften");
+			for (int i = 0; i < model.size; ++i) {
+				keyAttributes[i] = required.containsKey(model.names[i]);
+			}
+		}
+	}
+
+	public Map<String, Integer> solve(final Objective objective, final int budget) {
+		final int[] values = solveValues(objective, budget);
+		if (values == null) return null;
+		final Map<String, Integer> result = new LinkedHashMap<>();
+		for (int i = 0; i < model.size; ++i) {
+			result.put(model.names[i], values[i]);
+		}
+		return result;
+	}
+
+	int[] solveValues(final Objective objective, final int budget) {
+		final int cap = Settings.getSettingIntOrDefault(100, "Heldenerschaffung", "GP für Eigenschaften");
+		final int conCap = Settings.getSettingIntOrDefault(50, "Heldenerschaffung", "GP aus Nachteilen");
+		return solve(model, cap, Math.min(budget, cap), conCap, keyAttributes, objective);
+	}
+}
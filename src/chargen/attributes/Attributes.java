@@ -15,31 +15,36 @@
  */
 package chargen.attributes;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
+import chargen.attributes.AttributeSolver.Objective;
 import chargen.ui.TabController;
 import dsatool.gui.ThemedAlert;
-import dsatool.resources.ResourceManager;
 import dsatool.resources.Settings;
 import dsatool.ui.ReactiveSpinner;
 import dsatool.util.Util;
+import javafx.animation.PauseTransition;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
+import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
-import jsonant.value.JSONArray;
+import javafx.util.Duration;
 import jsonant.value.JSONObject;
 
 public class Attributes extends TabController {
@@ -51,7 +56,13 @@ public class Attributes extends TabController {
 
 	private final IntegerProperty attributesGP = new SimpleIntegerProperty();
 
-	private final Map<String, Integer> extremes = new HashMap<>();
+	private final PauseTransition commitDelay = new PauseTransition(Duration.millis(300));
+
+	private AttributeModel model;
+	private String[] infoLines;
+	private int[] infoExtremes;
+	private int infoRebuilds = 0;
+	private final List<ReactiveSpinner<Integer>> spinners = new ArrayList<>();
 
 	public Attributes(final JSONObject generationState, final TabPane tabPane, final VBox leftBox, final IntegerProperty gp) {
 		super(generationState, gp);
@@ -61,6 +72,15 @@ public class Attributes extends TabController {
 		pane.setCenter(grid);
 		pane.setBottom(infoLabel);
 
+		final ComboBox<Objective> objective = new ComboBox<>(FXCollections.observableArrayList(Objective.values()));
+		objective.getSelectionModel().select(Objective.NO_BAD_ATTRIBUTES);
+		final Button distribute = new Button("Automatisch verteilen");
+		distribute.setOnAction(_ -> distribute(objective.getValue()));
+		final HBox distributeBox = new HBox(5, objective, distribute);
+		distributeBox.setAlignment(Pos.CENTER);
+		BorderPane.setMargin(distributeBox, new Insets(5));
+		pane.setTop(distributeBox);
+
 		tab = addTab(tabPane, "Eigenschaften", pane);
 
 		grid.setAlignment(Pos.CENTER);
@@ -68,6 +88,8 @@ public class Attributes extends TabController {
 		grid.setVgap(5);
 
 		infoLabel.setPrefHeight(160);
+
+		commitDelay.setOnFinished(_ -> model.commit());
 	}
 
 	@Override
@@ -92,64 +114,40 @@ public class Attributes extends TabController {
 		grid.add(new Label("Max."), 3, 0);
 		grid.add(new Label("Wert"), 4, 0);
 
-		final JSONObject pros = ResourceManager.getResource("data/Vorteile");
-		final JSONObject cons = ResourceManager.getResource("data/Nachteile");
-		final JSONObject attributes = ResourceManager.getResource("data/Eigenschaften");
 		final JSONObject hero = generationState.getObj("Held");
-		final JSONObject actualPros = hero.getObj("Vorteile");
-		final JSONObject actualCons = hero.getObj("Nachteile");
-		final JSONObject actualAttributes = hero.getObj("Eigenschaften");
 
 		final int min = Settings.getSettingIntOrDefault(8, "Heldenerschaffung", "Minimum für Eigenschaften");
 		final int max = Settings.getSettingIntOrDefault(14, "Heldenerschaffung", "Maximum für Eigenschaften");
 
-		final JSONObject mods = getMods();
-		final JSONObject mins = getMins();
+		model = new AttributeModel(generationState, min, max);
+		spinners.clear();
 
 		int i = 1;
-		for (final String attributeName : attributes.keySet()) {
-			final int curMod = mods.getIntOrDefault(attributeName, 0);
-			final int curMin = min + curMod;
-			final int curMax = max + curMod;
-			final int requirementsMin = mins.getIntOrDefault(attributeName, 0);
-			grid.add(new Label(attributeName), 0, i);
+		for (int j = 0; j < model.size; ++j) {
+			final int index = j;
+			final int curMod = model.mods[index];
+			final int curMax = model.maxs[index];
+			final int requirementsMin = model.requirements[index];
+			grid.add(new Label(model.names[index]), 0, i);
 			grid.add(new Label(Util.getSignedIntegerString(curMod)), 1, i);
-			grid.add(new Label(mins.getIntOrDefault(attributeName, curMin).toString()), 2, i);
+			grid.add(new Label(Integer.toString(requirementsMin != 0 ? requirementsMin : model.mins[index])), 2, i);
 			grid.add(new Label(Integer.toString(curMax)), 3, i);
-			final JSONObject actualAttribute = actualAttributes.getObj(attributeName);
-			final int toChoose = Math.max(actualAttribute.getIntOrDefault("Wert", 0), Math.max(curMin, requirementsMin));
-			final ReactiveSpinner<Integer> attributeSpinner = new ReactiveSpinner<>(Math.max(requirementsMin, curMin - 1), 99, toChoose);
-			final JSONObject attribute = attributes.getObj(attributeName);
-			final int cost = getCost(curMod, toChoose, Integer.MIN_VALUE, curMax, pros, cons, actualPros, actualCons, attribute);
-			gp.set(gp.get() - cost + actualAttribute.getIntOrDefault("temporary:GP", 0));
+			final int toChoose = model.values[index];
+			final ReactiveSpinner<Integer> attributeSpinner = new ReactiveSpinner<>(Math.max(requirementsMin, model.mins[index] - 1), 99, toChoose);
+			gp.set(gp.get() - model.costs[index] + model.getPreviousCost(index));
 			attributesGP.set(attributesGP.get() + Math.min(toChoose, curMax) - curMod);
-			actualAttribute.put("temporary:GP", cost);
-			actualAttribute.put("Wert", toChoose);
-			actualAttribute.put("Start", toChoose);
-			if (toChoose < curMin) {
-				extremes.put(attributeName, -1);
-			} else if (toChoose > curMax) {
-				extremes.put(attributeName, toChoose - curMax);
-			}
 			attributeSpinner.valueProperty().addListener((_, oldV, newV) -> {
-				if (newV < curMin) {
-					extremes.put(attributeName, -1);
-				} else if (newV > curMax) {
-					extremes.put(attributeName, newV - curMax);
-				} else {
-					extremes.remove(attributeName);
-				}
-				updateInfo();
-				final int difference = getCost(oldV, newV, curMin, curMax, pros, cons, actualPros, actualCons, attribute);
+				final int difference = model.change(index, newV);
+				updateInfo(index);
 				gp.set(gp.get() - difference);
 				attributesGP.set(attributesGP.get() + Math.min(newV, curMax) - Math.min(oldV, curMax));
-				actualAttribute.put("temporary:GP", actualAttribute.getIntOrDefault("temporary:GP", 0) + difference);
-				actualAttribute.put("Wert", newV);
-				actualAttribute.put("Start", newV);
+				commitDelay.playFromStart();
 			});
 			grid.add(attributeSpinner, 4, i);
+			spinners.add(attributeSpinner);
 			++i;
 		}
+		model.commit();
 		updateInfo();
 
 		final int soMin = getSOMin();
@@ -189,83 +187,30 @@ public class Attributes extends TabController {
 	public void deactivate(final boolean forward) {
 		tab.setDisable(true);
 
+		commitDelay.stop();
+		model.commit();
+
 		leftBox.getChildren().remove(1, 3);
 	}
 
-	private int getCost(int oldValue, int newValue, final int min, final int max, final JSONObject pros, final JSONObject cons, final JSONObject actualPros,
-			final JSONObject actualCons, final JSONObject attribute) {
-		int difference = 0;
-		if (oldValue == min - 1) {
-			final String badAttribute = attribute.getString("Miserable Eigenschaft");
-			difference += cons.getObj(badAttribute).getIntOrDefault("Kosten", 1);
-			actualCons.removeKey(badAttribute);
-			oldValue = min;
+	private void distribute(final Objective objective) {
+		int budget = gp.get();
+		for (int i = 0; i < model.size; ++i) {
+			budget += model.costs[i];
 		}
-		if (newValue == min - 1) {
-			final String badAttribute = attribute.getString("Miserable Eigenschaft");
-			difference -= cons.getObj(badAttribute).getIntOrDefault("Kosten", 1);
-			actualCons.put(badAttribute, new JSONObject(actualCons));
-			newValue = min;
-		}
-		if (oldValue > max) {
-			final String goodAttribute = attribute.getString("Herausragende Eigenschaft");
-			final int n = oldValue - max;
-			difference -= (pros.getObj(goodAttribute).getIntOrDefault("Kosten", 1) + n - 1) * n;
-			actualPros.removeKey(goodAttribute);
-		}
-		if (newValue > max) {
-			final String goodAttribute = attribute.getString("Herausragende Eigenschaft");
-			final int n = newValue - max;
-			difference += (pros.getObj(goodAttribute).getIntOrDefault("Kosten", 1) + n - 1) * n;
-			final JSONObject newPro = new JSONObject(actualPros);
-			newPro.put("Stufe", n);
-			actualPros.put(goodAttribute, newPro);
-		}
-		difference += newValue - oldValue;
-
-		return difference;
-	}
-
-	private JSONObject getMins() {
-		final JSONObject result = new JSONObject(null);
-		for (final String current : new String[] { "Rasse", "Kultur", "Profession", "Breitgefächerte Bildung", "Veteran" }) {
-			if (!generationState.containsKey(current)) {
-				continue;
-			}
-			final JSONObject prerequisites = generationState.getObj(current).getObj("Voraussetzungen");
-			final JSONObject attributes = prerequisites.getObj("Eigenschaften");
-			for (final String attribute : attributes.keySet()) {
-				result.put(attribute, Math.max(result.getIntOrDefault(attribute, 0), attributes.getInt(attribute)));
-			}
-			if (prerequisites.containsKey("Wahl")) {
-				final Map<String, Integer> fromChoice = new HashMap<>();
-				final JSONArray choices = prerequisites.getArr("Wahl");
-				for (int i = 0; i < choices.size(); ++i) {
-					final JSONObject choice = choices.getObj(i);
-					if (choice.containsKey("Eigenschaften")) {
-						final JSONObject choiceAttributes = choice.getObj("Eigenschaften");
-						for (final String attribute : choiceAttributes.keySet()) {
-							fromChoice.put(attribute, Math.min(fromChoice.getOrDefault(attribute, Integer.MAX_VALUE), choiceAttributes.getInt(attribute)));
-						}
-					}
-				}
-				for (final String attribute : fromChoice.keySet()) {
-					result.put(attribute, Math.max(result.getIntOrDefault(attribute, 0), fromChoice.get(attribute)));
-				}
-			}
+		final int[] values = new AttributeSolver(model, generationState).solveValues(objective, budget);
+		if (values == null) {
+			final Alert alert = new ThemedAlert(AlertType.WARNING);
+			alert.setTitle("Keine Verteilung gefunden");
+			alert.setHeaderText("Die Eigenschaften können nicht automatisch verteilt werden");
+			alert.setContentText("Mit den verfügbaren GP lassen sich nicht alle Voraussetzungen erfüllen.");
+			alert.getButtonTypes().setAll(ButtonType.OK);
+			alert.show();
+			return;
 		}
-		return result;
-	}
-
-	private JSONObject getMods() {
-		final JSONObject result = new JSONObject(null);
-		for (final String current : new String[] { "Rasse", "Kultur", "Profession" }) {
-			final JSONObject attributes = generationState.getObj(current).getObj("Eigenschaften");
-			for (final String attribute : attributes.keySet()) {
-				result.put(attribute, result.getIntOrDefault(attribute, 0) + attributes.getInt(attribute));
-			}
+		for (int i = 0; i < values.length; ++i) {
+			spinners.get(i).getValueFactory().setValue(values[i]);
 		}
-		return result;
 	}
 
 	private int getSOMax() {
@@ -290,33 +235,43 @@ public class Attributes extends TabController {
 		return result;
 	}
 
-	private void updateInfo() {
-		final StringBuilder newInfo = new StringBuilder("\n");
-		final JSONObject attributes = ResourceManager.getResource("data/Eigenschaften");
-		for (final String attributeName : attributes.keySet()) {
-			if (extremes.containsKey(attributeName)) {
-				final JSONObject attribute = attributes.getObj(attributeName);
-				final int val = extremes.get(attributeName);
-				if (val < 0) {
-					newInfo.append(attributeName);
-					newInfo.append(" zu niedrig: Erhalte ");
-					newInfo.append(attribute.getString("Miserable Eigenschaft"));
-					newInfo.append('\n');
-				} else if (val > 0) {
-					newInfo.append(attributeName);
-					newInfo.append(" zu hoch: Erhalte ");
-					newInfo.append(val);
-					newInfo.append(" Stufe");
-					if (val > 1) {
-						newInfo.append('n');
-					}
-					newInfo.append(' ');
-					newInfo.append(attribute.getString("Herausragende Eigenschaft"));
-					newInfo.append('\n');
-				}
+	public int getInfoRebuilds() {
+		return infoRebuilds;
+	}
+
+	private String getInfoLine(final int index, final int val) {
+		if (val < 0) return model.names[index] + " zu niedrig: Erhalte " + model.badAttributes[index];
+		if (val > 0) return model.names[index] + " zu hoch: Erhalte " + val + (val > 1 ? " Stufen " : " Stufe ") + model.goodAttributes[index];
+		return null;
+	}
+
+	private void renderInfo() {
+		final StringBuilder newInfo = new StringBuilder();
+		for (final String line : infoLines) {
+			if (line != null) {
+				newInfo.append('\n');
+				newInfo.append(line);
 			}
 		}
-		newInfo.deleteCharAt(newInfo.length() - 1);
+		++infoRebuilds;
 		infoLabel.setText(newInfo.toString());
 	}
+
+	private void updateInfo() {
+		infoLines = new String[model.size];
+		infoExtremes = new int[model.size];
+		for (int i = 0; i < model.size; ++i) {
+			infoExtremes[i] = model.extreme(i);
+			infoLines[i] = getInfoLine(i, infoExtremes[i]);
+		}
+		renderInfo();
+	}
+
+	private void updateInfo(final int index) {
+		final int val = model.extreme(index);
+		if (val == infoExtremes[index]) return;
+		infoExtremes[index] = val;
+		infoLines[index] = getInfoLine(index, val);
+		renderInfo();
+	}
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.choices;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import dsa41basis.hero.Talent;
+import jsonant.value.JSONObject;
+
+public class ChoiceBatch {
+	private static class Operation {
+		private final Choice choice;
+		private final boolean unapply;
+		private final boolean alreadyApplied;
+
+		private Operation(final Choice choice, final boolean unapply, final boolean alreadyApplied) {
+			this.choice = choice;
+			this.unapply = unapply;
+			this.alreadyApplied = alreadyApplied;
+		}
+	}
+
+	private static long batches = 0;
+	private static long talentWrites = 0;
+	private static long mergedTalentWrites = 0;
+
+	public static synchronized long getBatches() {
+		return batches;
+	}
+
+	public static synchronized long getMergedTalentWrites() {
+		return mergedTalentWrites;
+	}
+
+	public static synchronized long getTalentWrites() {
+		return talentWrites;
+	}
+
+	private static synchronized void count(final int written, final int merged) {
+		++batches;
+		talentWrites += written;
+		mergedTalentWrites += merged;
+	}
+
+	private final JSONObject hero;
+	private final List<Operation> operations = new ArrayList<>();
+
+	public ChoiceBatch(final JSONObject hero) {
+		this.hero = hero;
+	}
+
+	public ChoiceBatch apply(final Choice choice, final boolean alreadyApplied) {
+		if (choice != null) {
+			operations.add(new Operation(choice, false, alreadyApplied));
+		}
+		return this;
+	}
+
+	public void commit() {
+		if (operations.isEmpty()) {
+			return;
+		}
+
+		final Map<Talent, Integer> talentChanges = new IdentityHashMap<>();
+		int requested = 0;
+		for (final Operation operation : operations) {
+			if (operation.choice instanceof final TalentChoice talentChoice && !operation.alreadyApplied) {
+				talentChanges.merge(talentChoice.talent, operation.unapply ? -talentChoice.value : talentChoice.value, Integer::sum);
+				++requested;
+			}
+		}
+		int written = 0;
+		for (final Map.Entry<Talent, Integer> change : talentChanges.entrySet()) {
+			if (change.getValue() != 0) {
+				final Talent talent = change.getKey();
+				talent.setValue((talent.getValue() == Integer.MIN_VALUE ? 0 : talent.getValue()) + change.getValue());
+				++written;
+			}
+		}
+
+		for (final Operation operation : operations) {
+			if (operation.choice instanceof final TalentChoice talentChoice) {
+				talentChoice.applyInternally(hero, operation.unapply ? -talentChoice.value : talentChoice.value, operation.unapply, true);
+			} else if (operation.unapply) {
+				operation.choice.unapply(hero);
+			} else {
+				operation.choice.apply(hero, operation.alreadyApplied);
+			}
+		}
+		operations.clear();
+
+		count(written, requested - written);
+	}
+
+	public ChoiceBatch unapply(final Choice choice) {
+		if (choice != null) {
+			operations.add(new Operation(choice, true, false));
+		}
+		return this;
+	}
+}
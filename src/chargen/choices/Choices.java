@@ -18,14 +18,18 @@ package chargen.choices;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import chargen.ui.TabController;
+import chargen.util.ChoiceIndex;
+import chargen.util.TalentCatalog;
 import dsa41basis.hero.Spell;
 import dsa41basis.hero.Talent;
 import dsa41basis.util.DSAUtil;
@@ -40,13 +44,12 @@ import javafx.beans.binding.BooleanBinding;
 import javafx.beans.binding.BooleanExpression;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.IntegerProperty;
-import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyStringProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleIntegerProperty;
-import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
+import javafx.beans.value.ChangeListener;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.HPos;
@@ -79,6 +82,10 @@ public class Choices extends TabController {
 	public static class ChoicePage {
 		private final StringProperty text;
 		private final BooleanProperty valid;
+		private Node content;
+		private Supplier<Node> createContent;
+		private Supplier<String> invalidReason;
+		private String inputs;
 
 		public ChoicePage(final String text, final BooleanExpression valid) {
 			this.text = new SimpleStringProperty(text);
@@ -86,6 +93,30 @@ public class Choices extends TabController {
 			this.valid.bind(valid);
 		}
 
+		private ChoicePage(final String text, final BooleanExpression valid, final Supplier<String> invalidReason, final Node content) {
+			this(text, valid);
+			this.invalidReason = invalidReason;
+			this.content = content;
+		}
+
+		private ChoicePage(final String text, final BooleanExpression valid, final Supplier<String> invalidReason, final Supplier<Node> createContent) {
+			this(text, valid);
+			this.invalidReason = invalidReason;
+			this.createContent = createContent;
+		}
+
+		private Node getContent() {
+			if (content == null) {
+				content = createContent.get();
+				createContent = null;
+			}
+			return content;
+		}
+
+		public String getInvalidReason() {
+			return valid.get() || invalidReason == null ? "" : invalidReason.get();
+		}
+
 		public ReadOnlyStringProperty textProperty() {
 			return text;
 		}
@@ -95,26 +126,49 @@ public class Choices extends TabController {
 		}
 	}
 
+	private static class PointRow {
+		private final String name;
+		private final String rep;
+		private final int index;
+		private final String choiceName;
+		private ValueChoice choice;
+		private final BooleanProperty primarySpell = new SimpleBooleanProperty(false);
+		private final BooleanProperty primarySpellExternal = new SimpleBooleanProperty(false);
+		private final BooleanProperty primaryTalent = new SimpleBooleanProperty(false);
+		private final BooleanProperty primaryTalentExternal = new SimpleBooleanProperty(false);
+
+		private PointRow(final String name, final String rep, final int index, final String choiceName) {
+			this.name = name;
+			this.rep = rep;
+			this.index = index;
+			this.choiceName = choiceName;
+		}
+	}
+
 	private final StackPane pane = new StackPane();
 
 	private final Tab tab;
 	private final TableView<ChoicePage> choiceNames;
 	private final VBox leftBox;
 
-	private final List<BooleanProperty> toSelect = new ArrayList<>();
+	private final IntegerProperty invalidPages = new SimpleIntegerProperty(0);
+	private final ChangeListener<Boolean> validityListener = (_, _, newV) -> invalidPages.set(invalidPages.get() + (newV ? -1 : 1));
+
+	private final Map<JSONObject, ChoicePage> pages = new IdentityHashMap<>();
+	private Map<JSONObject, ChoicePage> previousPages = new IdentityHashMap<>();
 
 	private final Map<String, Talent> talents = new HashMap<>();
+	private final Map<JSONObject, ChoiceIndex> indices = new IdentityHashMap<>();
+	private final Map<JSONObject, JSONObject> appliedItems = new IdentityHashMap<>();
 
 	private final List<String> languageTypes = List.of("Muttersprache", "Zweitsprache", "Lehrsprache");
 
-	private ObjectProperty<Talent> ml;
-	private ObjectProperty<Talent> sl;
-	private ObjectProperty<Talent> tl;
-	private ObjectProperty<Talent> mlWriting;
+	private final LanguageAssignment languageAssignment = new LanguageAssignment();
 	private final IntegerProperty languageBonus = new SimpleIntegerProperty(0);
 	private final IntegerProperty writingBonus = new SimpleIntegerProperty(0);
 
 	private JSONObject hero;
+	private ChoiceBatch pendingChoices;
 
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public Choices(final JSONObject generationState, final TabPane tabPane, final VBox leftBox, final IntegerProperty gp) {
@@ -123,6 +177,11 @@ public class Choices extends TabController {
 
 		tab = addTab(tabPane, "Auswahl", pane);
 
+		canContinue.bind(invalidPages.isEqualTo(0));
+
+		languageBonus.addListener((_, _, newV) -> languageAssignment.setLanguageBonus(newV.intValue()));
+		writingBonus.addListener((_, _, newV) -> languageAssignment.setWritingBonus(newV.intValue()));
+
 		choiceNames = new TableView<>();
 		choiceNames.getColumns().add(new TableColumn<>());
 		choiceNames.getColumns().add(new TableColumn<>());
@@ -145,16 +204,22 @@ public class Choices extends TabController {
 				} else {
 					row.getStyleClass().remove("valid");
 				}
+				if (!empty && !valid) {
+					final Tooltip tooltip = new Tooltip();
+					tooltip.setOnShowing(_ -> {
+						tooltip.setText(row.getItem().getInvalidReason());
+					});
+					row.setTooltip(tooltip);
+				} else {
+					row.setTooltip(null);
+				}
 			}
 		});
 		VBox.setVgrow(choiceNames, Priority.ALWAYS);
 
-		choiceNames.getSelectionModel().selectedIndexProperty().addListener((_, oldV, newV) -> {
-			if (newV.intValue() > -1) {
-				pane.getChildren().get(newV.intValue()).setVisible(true);
-				if (oldV.intValue() > -1) {
-					pane.getChildren().get(oldV.intValue()).setVisible(false);
-				}
+		choiceNames.getSelectionModel().selectedItemProperty().addListener((_, _, newV) -> {
+			if (newV != null) {
+				pane.getChildren().setAll(newV.getContent());
 			}
 		});
 	}
@@ -167,11 +232,25 @@ public class Choices extends TabController {
 		leftBox.getChildren().add(0, choiceNames);
 
 		pane.getChildren().clear();
+		for (final ChoicePage page : choiceNames.getItems()) {
+			page.validProperty().removeListener(validityListener);
+		}
 		choiceNames.getItems().clear();
-		talents.clear();
-		toSelect.clear();
+		invalidPages.set(0);
+
+		final JSONObject currentHero = generationState.getObj("Held");
+		if (currentHero != hero || !currentHero.getObj("Vorteile").containsKey("temporary:AppliedChoices")) {
+			pages.clear();
+			talents.clear();
+			appliedItems.clear();
+			languageAssignment.reset();
+		}
+		hero = currentHero;
+		pendingChoices = new ChoiceBatch(hero);
+		indices.clear();
+		previousPages = new IdentityHashMap<>(pages);
+		pages.clear();
 
-		hero = generationState.getObj("Held");
 		final JSONObject race = generationState.getObj("Rasse");
 		final JSONObject culture = generationState.getObj("Kultur");
 		final JSONObject profession = generationState.getObj("Profession");
@@ -191,10 +270,12 @@ public class Choices extends TabController {
 			final List<JSONObject> choices = new ArrayList<>();
 			getChoices("Sonderfertigkeiten", choices, bgbVeteran);
 			for (final JSONObject choice : choices) {
-				createSingleChoiceInput("Verbilligte Sonderfertigkeiten", choice, cheaperSkills, false);
+				addPage(choice, () -> createSingleChoiceInput("Verbilligte Sonderfertigkeiten", choice, cheaperSkills, false));
 			}
 		}
 
+		pendingChoices.commit();
+
 		pros.put("temporary:AppliedChoices", true);
 		cons.put("temporary:AppliedChoices", true);
 		skills.put("temporary:AppliedChoices", true);
@@ -205,9 +286,9 @@ public class Choices extends TabController {
 
 		for (final JSONObject choice : valueChoices) {
 			if (choice.containsKey("Punkte")) {
-				createPointChoiceInput(choice, false, false);
+				addPage(choice, () -> createPointChoiceInput(choice, false, false));
 			} else {
-				createValueChoiceInput(choice, false, false);
+				addPage(choice, () -> createValueChoiceInput(choice, false, false));
 			}
 		}
 
@@ -216,9 +297,9 @@ public class Choices extends TabController {
 
 		for (final JSONObject choice : primarySpellChoices) {
 			if (choice.containsKey("Punkte")) {
-				createPointChoiceInput(choice, true, true);
+				addPage(choice, () -> createPointChoiceInput(choice, true, true));
 			} else {
-				createValueChoiceInput(choice, true, true);
+				addPage(choice, () -> createValueChoiceInput(choice, true, true));
 			}
 		}
 
@@ -227,13 +308,14 @@ public class Choices extends TabController {
 
 		for (final JSONObject choice : spellChoices) {
 			if (choice.containsKey("Punkte")) {
-				createPointChoiceInput(choice, true, false);
+				addPage(choice, () -> createPointChoiceInput(choice, true, false));
 			} else {
-				createValueChoiceInput(choice, true, false);
+				addPage(choice, () -> createValueChoiceInput(choice, true, false));
 			}
 		}
 
 		final int KL = hero.getObj("Eigenschaften").getObj("KL").getIntOrDefault("Wert", 0);
+		languageAssignment.begin(KL);
 		languageBonus.set(race.getObj("Talente").getIntOrDefault("Muttersprache", 0) + culture.getObj("Talente").getIntOrDefault("Muttersprache", 0)
 				+ profession.getObj("Talente").getIntOrDefault("Muttersprache", 0));
 
@@ -241,131 +323,77 @@ public class Choices extends TabController {
 				.set(race.getObj("Talente").getIntOrDefault("Muttersprache:Schrift", 0) + culture.getObj("Talente").getIntOrDefault("Muttersprache:Schrift", 0)
 						+ profession.getObj("Talente").getIntOrDefault("Muttersprache:Schrift", 0));
 
-		ml = new SimpleObjectProperty<>(null);
-		sl = new SimpleObjectProperty<>(null);
-		tl = new SimpleObjectProperty<>(null);
-		mlWriting = new SimpleObjectProperty<>(null);
-		final boolean[] addLanguageBoni = { forward, forward, forward, forward };
-
-		ml.addListener((_, oldV, newV) -> {
-			if (oldV != null) {
-				oldV.getActual().removeKey("Muttersprache");
-				if (oldV == tl.get()) {
-					oldV.setValue(oldV.getValue() - 4 - languageBonus.get());
-				} else {
-					oldV.setValue(oldV.getValue() - KL + 2 - languageBonus.get());
-				}
-				if (oldV.getValue() == 0) {
-					oldV.setValue(Integer.MIN_VALUE);
-				}
-			}
-			if (newV != null) {
-				if (addLanguageBoni[0]) {
-					if (newV == tl.get()) {
-						newV.setValue((newV.getValue() == Integer.MIN_VALUE ? 0 : newV.getValue()) + 4 + languageBonus.get());
-					} else {
-						newV.setValue((newV.getValue() == Integer.MIN_VALUE ? 0 : newV.getValue()) + KL - 2 + languageBonus.get());
-					}
-				}
-				addLanguageBoni[0] = true;
-				newV.getActual().put("Muttersprache", true);
-				if (talents.containsKey("Muttersprache")) {
-					((ProxyTalent) talents.get("Muttersprache")).changeTalent(newV, hero.getObj("Talente").getObj("Sprachen und Schriften"));
-				}
-			}
-		});
-		sl.addListener((_, oldV, newV) -> {
-			if (oldV != null) {
-				oldV.getActual().removeKey("Zweitsprache");
-				if (oldV != tl.get()) {
-					oldV.setValue(oldV.getValue() - KL + 4);
-					if (oldV.getValue() == 0) {
-						oldV.setValue(Integer.MIN_VALUE);
-					}
-				}
-			}
-			if (newV != null) {
-				if (addLanguageBoni[1]) {
-					if (newV != tl.get()) {
-						newV.setValue((newV.getValue() == Integer.MIN_VALUE ? 0 : newV.getValue()) + KL - 4);
-					}
-				}
-				addLanguageBoni[1] = true;
-				newV.getActual().put("Zweitsprache", true);
-			}
-		});
-		tl.addListener((_, oldV, newV) -> {
-			if (oldV != null) {
-				oldV.getActual().removeKey("Lehrsprache");
-				if (oldV == ml.get()) {
-					oldV.setValue(oldV.getValue() - 4);
-				} else if (oldV != sl.get()) {
-					oldV.setValue(oldV.getValue() - KL + 4);
-				}
-				if (oldV.getValue() == 0) {
-					oldV.setValue(Integer.MIN_VALUE);
-				}
-			}
-			if (newV != null) {
-				if (addLanguageBoni[2]) {
-					if (newV == ml.get()) {
-						newV.setValue((newV.getValue() == Integer.MIN_VALUE ? 0 : newV.getValue()) + 4);
-					} else if (newV != sl.get()) {
-						newV.setValue((newV.getValue() == Integer.MIN_VALUE ? 0 : newV.getValue()) + KL - 4);
-					}
-				}
-				addLanguageBoni[2] = true;
-				newV.getActual().put("Lehrsprache", true);
-			}
-		});
-		mlWriting.addListener((_, oldV, newV) -> {
-			if (oldV != null) {
-				oldV.getActual().removeKey("Muttersprache");
-				oldV.setValue(oldV.getValue() - writingBonus.get());
-			}
-			if (newV != null) {
-				if (addLanguageBoni[3]) {
-					newV.setValue((newV.getValue() == Integer.MIN_VALUE ? 0 : newV.getValue()) + writingBonus.get());
-				}
-				addLanguageBoni[3] = true;
-				newV.getActual().put("Muttersprache", true);
-				if (talents.containsKey("Muttersprache:Schrift")) {
-					((ProxyTalent) talents.get("Muttersprache:Schrift")).changeTalent(newV, hero.getObj("Talente").getObj("Sprachen und Schriften"));
-				}
-			}
-		});
-		languageBonus.addListener((_, oldV, newV) -> {
-			final Talent language = ml.get();
-			if (language != null) {
-				language.setValue((language.getValue() == Integer.MIN_VALUE ? 0 : language.getValue()) - oldV.intValue() + newV.intValue());
-			}
-		});
-		writingBonus.addListener((_, oldV, newV) -> {
-			final Talent writing = mlWriting.get();
-			if (writing != null) {
-				writing.setValue((writing.getValue() == Integer.MIN_VALUE ? 0 : writing.getValue()) - oldV.intValue() + newV.intValue());
-			}
-		});
+		addPage(createLanguageChoice(race.getObj("Sprachen")));
+		addPage(createLanguageChoice(culture.getObj("Sprachen")));
+		addPage(createLanguageChoice(profession.getObj("Sprachen")));
 
-		createLanguageChoice(race.getObj("Sprachen"));
-		createLanguageChoice(culture.getObj("Sprachen"));
-		createLanguageChoice(profession.getObj("Sprachen"));
+		languageAssignment.apply();
+		updateLanguageProxies();
 
 		final JSONArray inventory = hero.getObj("Besitz").getArr("Ausrüstung");
 		createSingleInputs("Ausrüstung", inventory, true, race, culture, profession, null);
+		pendingChoices.commit();
 
 		if (!inventory.contains("temporary:AppliedChoices")) {
 			inventory.add("temporary:AppliedChoices");
 		}
 
+		previousPages.clear();
+
 		if (!choiceNames.getItems().isEmpty()) {
+			choiceNames.getSelectionModel().clearSelection();
 			choiceNames.getSelectionModel().select(0);
 		}
+	}
+
+	private void addPage(final ChoicePage page) {
+		if (page == null) return;
+		choiceNames.getItems().add(page);
+		page.validProperty().addListener(validityListener);
+		if (!page.validProperty().get()) {
+			invalidPages.set(invalidPages.get() + 1);
+		}
+	}
+
+	private void addPage(final JSONObject choice, final Supplier<ChoicePage> create) {
+		final String inputs = getPageInputs(choice);
+		ChoicePage page = previousPages.get(choice);
+		if (page == null || !inputs.equals(page.inputs)) {
+			page = create.get();
+			page.inputs = inputs;
+		}
+		pages.put(choice, page);
+		addPage(page);
+	}
+
+	private String getPageInputs(final JSONObject choice) {
+		final boolean elvenWorldview = hero.getObj("Nachteile").containsKey("Elfische Weltsicht");
+		return choice.getIntOrDefault("Hauszauber", 0) + "/" + choice.getIntOrDefault("Leittalente", 0) + "/" + elvenWorldview;
+	}
 
-		recalculateCanContinue();
+	private void assignLanguage(final String type, final Talent language, final JSONObject languages) {
+		switch (type) {
+			case "Muttersprache":
+				languageAssignment.setMotherTongue(language,
+						getTalent(languages.getObj("Muttersprache:Schrift").getStringOrDefault(language.getName(), null), null));
+				updateLanguageProxies();
+				break;
+			case "Zweitsprache":
+				if (languages.getBoolOrDefault("Leittalent", false)) {
+					language.setPrimaryTalent(true);
+				}
+				languageAssignment.setSecondLanguage(language);
+				break;
+			case "Lehrsprache":
+				if (languages.getBoolOrDefault("Leittalent", false)) {
+					language.setPrimaryTalent(true);
+				}
+				languageAssignment.setTeachingLanguage(language);
+				break;
+		}
 	}
 
-	private void createLanguageChoice(final JSONObject languages) {
+	private ChoicePage createLanguageChoice(final JSONObject languages) {
 		final List<Tuple<String, JSONArray>> choices = new ArrayList<>(3);
 		final Set<String> actualLanguages = new LinkedHashSet<>();
 
@@ -376,25 +404,7 @@ public class Choices extends TabController {
 				if (currentLanguages.size() <= 1) {
 					if (currentLanguages.size() == 1) {
 						final String language = currentLanguages.getString(0);
-						final Talent actualTalent = getTalent(language, null);
-						switch (type) {
-							case "Muttersprache":
-								ml.set(actualTalent);
-								mlWriting.set(getTalent(languages.getObj("Muttersprache:Schrift").getStringOrDefault(language, null), null));
-								break;
-							case "Zweitsprache":
-								if (languages.getBoolOrDefault("Leittalent", false)) {
-									actualTalent.setPrimaryTalent(true);
-								}
-								sl.set(actualTalent);
-								break;
-							case "Lehrsprache":
-								if (languages.getBoolOrDefault("Leittalent", false)) {
-									actualTalent.setPrimaryTalent(true);
-								}
-								tl.set(actualTalent);
-								break;
-						}
+						assignLanguage(type, getTalent(language, null), languages);
 					}
 					continue;
 				}
@@ -405,12 +415,11 @@ public class Choices extends TabController {
 			}
 		}
 
-		if (choices.isEmpty()) return;
+		if (choices.isEmpty()) return null;
 
 		final ScrollPane scrollPane = new ScrollPane();
 		final GridPane input = new GridPane();
 		scrollPane.setContent(input);
-		scrollPane.setVisible(false);
 		scrollPane.setFitToHeight(true);
 		scrollPane.setFitToWidth(true);
 		input.setAlignment(Pos.CENTER);
@@ -437,7 +446,6 @@ public class Choices extends TabController {
 		for (final Tuple<String, JSONArray> choice : choices) {
 			final int finalI = i;
 			final BooleanProperty isValid = new SimpleBooleanProperty(false);
-			toSelect.add(isValid);
 			allValid = allValid.and(isValid);
 			groups[i] = new ToggleGroup();
 			groups[i].selectedToggleProperty().addListener((_, oldV, newV) -> {
@@ -445,7 +453,6 @@ public class Choices extends TabController {
 
 				if (oldV == null) {
 					isValid.set(true);
-					recalculateCanContinue();
 				}
 				for (int j = 0; j < numChoices; j++) {
 					if (finalI != j) {
@@ -488,24 +495,7 @@ public class Choices extends TabController {
 					check.selectedProperty().addListener((_, _, newV) -> {
 						actualTalent.setPrimaryTalent(false);
 						if (newV) {
-							switch (choice._1) {
-								case "Muttersprache":
-									ml.set(actualTalent);
-									mlWriting.set(getTalent(languages.getObj("Muttersprache:Schrift").getStringOrDefault(language, null), null));
-									break;
-								case "Zweitsprache":
-									if (languages.getBoolOrDefault("Leittalent", false)) {
-										actualTalent.setPrimaryTalent(newV);
-									}
-									sl.set(actualTalent);
-									break;
-								case "Lehrsprache":
-									if (languages.getBoolOrDefault("Leittalent", false)) {
-										actualTalent.setPrimaryTalent(newV);
-									}
-									tl.set(actualTalent);
-									break;
-							}
+							assignLanguage(choice._1, actualTalent, languages);
 						}
 					});
 					if (chosen.getInt(j).equals(i)) {
@@ -516,36 +506,23 @@ public class Choices extends TabController {
 			++i;
 		}
 
-		choiceNames.getItems().add(new ChoicePage(String.join(", ", actualLanguages), allValid));
-		pane.getChildren().add(scrollPane);
+		final Supplier<String> invalidReason = () -> {
+			final List<String> missing = new ArrayList<>(numChoices);
+			for (int j = 0; j < numChoices; ++j) {
+				if (groups[j].getSelectedToggle() == null) {
+					missing.add(choices.get(j)._1);
+				}
+			}
+			return "Noch nicht gewählt: " + String.join(", ", missing);
+		};
+
+		return new ChoicePage(String.join(", ", actualLanguages), allValid, invalidReason, scrollPane);
 	}
 
-	private void createPointChoiceInput(final JSONObject choices, final boolean spells, final boolean primarySpells) {
+	private ChoicePage createPointChoiceInput(final JSONObject choices, final boolean spells, final boolean primarySpells) {
 		final boolean useComplexity = choices.getBoolOrDefault("Verrechnungspunkte", false);
 		final IntegerProperty points = new SimpleIntegerProperty(choices.getIntOrDefault("Punkte", 0));
 
-		final VBox box = new VBox();
-		box.setVisible(false);
-		box.setFillWidth(true);
-
-		final Label pointsLabel = new Label();
-		pointsLabel.textProperty().bind(points.asString());
-		final HBox panel = new HBox();
-		panel.getChildren().add(new Label("Verteile "));
-		panel.getChildren().add(pointsLabel);
-		panel.getChildren().add(new Label((useComplexity ? " Verrechnungspunkte" : " Punkte")
-				+ (choices.containsKey("Anzahl:Maximum") ? " auf maximal " + choices.getInt("Anzahl:Maximum") + (spells ? " Zauber" : " Talente") : "")
-				+ (choices.containsKey("Maximum") ? " (je maximal " + choices.getInt("Maximum") + " Punkte)" : "")));
-		box.getChildren().add(panel);
-
-		final ScrollPane scrollPane = new ScrollPane();
-		final GridPane input = new GridPane();
-		scrollPane.setContent(input);
-		scrollPane.setFitToWidth(true);
-		input.setAlignment(Pos.CENTER);
-		input.setHgap(5);
-		input.setVgap(5);
-
 		final JSONValue actualChoices = spells ? choices.getObj("Wahl") : choices.getArr("Wahl");
 
 		final JSONObject initialChosen = choices.getObjOrDefault("Ausgewählt", null);
@@ -557,8 +534,6 @@ public class Choices extends TabController {
 			chosen = initialChosen;
 		}
 
-		final StringBuilder names = new StringBuilder();
-
 		final IntegerProperty canSelect = new SimpleIntegerProperty(choices.getIntOrDefault("Anzahl:Maximum", actualChoices.size()));
 
 		String[] spellNames = null;
@@ -569,16 +544,6 @@ public class Choices extends TabController {
 			final Set<String> keySet = ((JSONObject) actualChoices).keySet();
 			spellNames = keySet.toArray(new String[keySet.size()]);
 			if (needsPrimarySpells) {
-				final Label primarySpellsLabel = new Label();
-				primarySpellsLabel.textProperty().bind(availablePrimarySpells.asString());
-				final HBox primarySpellsPanel = new HBox();
-				primarySpellsPanel.getChildren().add(new Label("Wähle "));
-				primarySpellsPanel.getChildren().add(primarySpellsLabel);
-				primarySpellsPanel.getChildren().add(new Label(" Hauszauber"));
-				box.getChildren().add(primarySpellsPanel);
-
-				input.add(new Label("Hauszauber"), 3, 0);
-
 				if (choices.containsKey("Ausgewählt:Hauszauber")) {
 					chosenPrimarySpells = choices.getArr("Ausgewählt:Hauszauber");
 				} else {
@@ -599,16 +564,6 @@ public class Choices extends TabController {
 		final IntegerProperty availablePrimaryTalents = new SimpleIntegerProperty(choices.getIntOrDefault("Leittalente", 0));
 		final JSONArray chosenPrimaryTalents;
 		if (needsPrimaryTalents) {
-			final Label primaryTalentsLabel = new Label();
-			primaryTalentsLabel.textProperty().bind(availablePrimaryTalents.asString());
-			final HBox primaryTalentsPanel = new HBox();
-			primaryTalentsPanel.getChildren().add(new Label("Wähle "));
-			primaryTalentsPanel.getChildren().add(primaryTalentsLabel);
-			primaryTalentsPanel.getChildren().add(new Label(" Leittalente"));
-			box.getChildren().add(primaryTalentsPanel);
-
-			input.add(new Label("Leittalent"), needsPrimarySpells ? 4 : 3, 0);
-
 			if (choices.containsKey("Ausgewählt:Leittalente")) {
 				chosenPrimaryTalents = choices.getArr("Ausgewählt:Leittalente");
 			} else {
@@ -623,7 +578,6 @@ public class Choices extends TabController {
 		}
 
 		final SimpleBooleanProperty isValid = new SimpleBooleanProperty(false);
-		toSelect.add(isValid);
 		BooleanBinding valid = points.isEqualTo(0);
 		if (needsPrimarySpells) {
 			valid = valid.and(availablePrimarySpells.isEqualTo(0));
@@ -633,40 +587,185 @@ public class Choices extends TabController {
 		}
 		isValid.bind(valid);
 
-		int current = 0;
-		int row = 1;
-		for (int i = 0; i < actualChoices.size(); ++i) {
-			final String name = spells ? spellNames[i] : ((JSONArray) actualChoices).getString(i);
-			List<String> actualNames = new LinkedList<>();
+		final Consumer<PointRow> materialize = row -> {
+			if (row.choice != null) return;
+
+			final Talent actualTalent = getTalent(row.name, row.rep);
+			final ValueChoice actualChoice = new ValueChoice(actualTalent, points, useComplexity, row.rep, primarySpells);
+			final int chosenValue = chosen.getIntOrDefault(row.choiceName, -1);
+			actualChoice.value = chosenValue == -1 ? null : chosenValue;
+			actualChoice.apply(hero, true);
+			row.choice = actualChoice;
+
+			actualTalent.valueProperty().addListener((_, _, newV) -> {
+				if (newV.intValue() == Integer.MIN_VALUE && actualChoice.value != null && actualChoice.value == 0) {
+					actualTalent.setValue(0);
+					actualTalent.getActual().put("temporary:ChoiceOnly", true);
+				}
+			});
 
-			if ("Fremdsprache".equals(name)) {
-				final JSONObject langs = ResourceManager.getResource("data/Talente").getObj("Sprachen und Schriften");
-				for (final String lang : langs.keySet()) {
-					if (!langs.getObj(lang).getBoolOrDefault("Schrift", false)) {
-						actualNames.add(lang);
+			if (needsPrimarySpells) {
+				final Spell spell = (Spell) actualTalent;
+				if (spell.isPrimarySpell()) {
+					if (chosenPrimarySpells.getBool(row.index)) {
+						availablePrimarySpells.set(availablePrimarySpells.get() - 1);
+					} else {
+						row.primarySpellExternal.set(true);
 					}
+					row.primarySpell.set(true);
 				}
-			} else if ("Fremdschrift".equals(name)) {
-				final JSONObject langs = ResourceManager.getResource("data/Talente").getObj("Sprachen und Schriften");
-				for (final String lang : langs.keySet()) {
-					if (langs.getObj(lang).getBoolOrDefault("Schrift", false)) {
-						actualNames.add(lang);
+
+				row.primarySpell.addListener((_, _, newV) -> {
+					if (!row.primarySpellExternal.get()) {
+						chosenPrimarySpells.set(row.index, newV);
+						spell.setPrimarySpell(newV);
+						availablePrimarySpells.set(availablePrimarySpells.get() - (newV ? 1 : -1));
+						if (actualChoice.value != null) {
+							points.set(points.get() + (actualChoice.value + 1) * (newV ? 1 : -1));
+						}
+					}
+				});
+
+				spell.primarySpellProperty().addListener((_, _, newV) -> {
+					if (newV && !chosenPrimarySpells.getBool(row.index)) {
+						row.primarySpellExternal.set(true);
+					}
+					row.primarySpell.set(newV);
+					if (!newV) {
+						row.primarySpellExternal.set(false);
+					}
+				});
+			}
+
+			if (needsPrimaryTalents) {
+				if (actualTalent.isPrimaryTalent()) {
+					if (chosenPrimaryTalents.getBool(row.index)) {
+						availablePrimaryTalents.set(availablePrimaryTalents.get() - 1);
+					} else {
+						row.primaryTalentExternal.set(true);
 					}
+					row.primaryTalent.set(true);
 				}
-			} else {
-				actualNames = Collections.singletonList(name);
+
+				row.primaryTalent.addListener((_, _, newV) -> {
+					if (!row.primaryTalentExternal.get()) {
+						chosenPrimaryTalents.set(row.index, newV);
+						actualTalent.setPrimaryTalent(newV);
+						availablePrimaryTalents.set(availablePrimaryTalents.get() - (newV ? 1 : -1));
+					}
+				});
+
+				actualTalent.primaryTalentProperty().addListener((_, _, newV) -> {
+					if (newV && !chosenPrimaryTalents.getBool(row.index)) {
+						row.primaryTalentExternal.set(true);
+					}
+					row.primaryTalent.set(newV);
+					if (!newV) {
+						row.primaryTalentExternal.set(false);
+					}
+				});
 			}
+		};
 
+		final List<PointRow> rows = new ArrayList<>();
+		final List<String> names = new ArrayList<>();
+		for (int i = 0; i < actualChoices.size(); ++i) {
+			final String name = spells ? spellNames[i] : ((JSONArray) actualChoices).getString(i);
 			final String rep = spells ? ((JSONObject) actualChoices).getString(name) : null;
 
-			for (final String actualName : actualNames) {
-				final Talent actualTalent = getTalent(actualName, rep);
+			for (final String actualName : getActualNames(name)) {
+				final PointRow row = new PointRow(actualName, rep, i, spells ? actualName + rep : actualName);
+				rows.add(row);
+				names.add(actualName);
+
+				final boolean isChosen = chosen.containsKey(row.choiceName);
+				if (isChosen) {
+					canSelect.set(canSelect.get() - 1);
+				}
+				if (isChosen || needsPrimarySpells && chosenPrimarySpells.getBool(i) || needsPrimaryTalents && chosenPrimaryTalents.getBool(i)) {
+					materialize.accept(row);
+				}
+			}
+		}
+
+		final Supplier<String> invalidReason = () -> {
+			final List<String> reasons = new ArrayList<>(3);
+			final String pointsName = useComplexity ? " Verrechnungspunkte" : " Punkte";
+			if (points.get() > 0) {
+				reasons.add("Noch " + points.get() + pointsName + " zu verteilen");
+			} else if (points.get() < 0) {
+				reasons.add(-points.get() + pointsName + " zu viel verteilt");
+			}
+			if (needsPrimarySpells && availablePrimarySpells.get() != 0) {
+				reasons.add("Noch " + availablePrimarySpells.get() + " Hauszauber zu wählen");
+			}
+			if (needsPrimaryTalents && availablePrimaryTalents.get() != 0) {
+				reasons.add("Noch " + availablePrimaryTalents.get() + " Leittalente zu wählen");
+			}
+			return String.join("\n", reasons);
+		};
+
+		return new ChoicePage(String.join(", ", names), isValid, invalidReason, () -> {
+			final VBox box = new VBox();
+			box.setFillWidth(true);
+
+			final Label pointsLabel = new Label();
+			pointsLabel.textProperty().bind(points.asString());
+			final HBox panel = new HBox();
+			panel.getChildren().add(new Label("Verteile "));
+			panel.getChildren().add(pointsLabel);
+			panel.getChildren().add(new Label((useComplexity ? " Verrechnungspunkte" : " Punkte")
+					+ (choices.containsKey("Anzahl:Maximum") ? " auf maximal " + choices.getInt("Anzahl:Maximum") + (spells ? " Zauber" : " Talente") : "")
+					+ (choices.containsKey("Maximum") ? " (je maximal " + choices.getInt("Maximum") + " Punkte)" : "")));
+			box.getChildren().add(panel);
+
+			final ScrollPane scrollPane = new ScrollPane();
+			final GridPane input = new GridPane();
+			scrollPane.setContent(input);
+			scrollPane.setFitToWidth(true);
+			input.setAlignment(Pos.CENTER);
+			input.setHgap(5);
+			input.setVgap(5);
+
+			if (needsPrimarySpells) {
+				final Label primarySpellsLabel = new Label();
+				primarySpellsLabel.textProperty().bind(availablePrimarySpells.asString());
+				final HBox primarySpellsPanel = new HBox();
+				primarySpellsPanel.getChildren().add(new Label("Wähle "));
+				primarySpellsPanel.getChildren().add(primarySpellsLabel);
+				primarySpellsPanel.getChildren().add(new Label(" Hauszauber"));
+				box.getChildren().add(primarySpellsPanel);
+
+				input.add(new Label("Hauszauber"), 3, 0);
+			}
+
+			if (needsPrimaryTalents) {
+				final Label primaryTalentsLabel = new Label();
+				primaryTalentsLabel.textProperty().bind(availablePrimaryTalents.asString());
+				final HBox primaryTalentsPanel = new HBox();
+				primaryTalentsPanel.getChildren().add(new Label("Wähle "));
+				primaryTalentsPanel.getChildren().add(primaryTalentsLabel);
+				primaryTalentsPanel.getChildren().add(new Label(" Leittalente"));
+				box.getChildren().add(primaryTalentsPanel);
+
+				input.add(new Label("Leittalent"), needsPrimarySpells ? 4 : 3, 0);
+			}
+
+			final ObservableList<String> possible = FXCollections.observableArrayList("n.a.");
+			for (int j = choices.getIntOrDefault("Minimum", useComplexity ? 0 : 1); j <= choices.getIntOrDefault("Maximum",
+					choices.getIntOrDefault("Punkte", 0)); ++j) {
+				possible.add(Integer.toString(j));
+			}
+
+			int rowIndex = 1;
+			for (final PointRow row : rows) {
+				materialize.accept(row);
+				final ValueChoice actualChoice = row.choice;
+				final Talent actualTalent = actualChoice.talent;
 
 				final String talentName = actualTalent.getName();
-				names.append(talentName);
-				names.append(", ");
 				final Label nameLabel = new Label(talentName);
-				input.add(nameLabel, 0, row);
+				input.add(nameLabel, 0, rowIndex);
 				nameLabel.setMinWidth(250);
 				nameLabel.setPadding(new Insets(0, 10, 0, 10));
 				if (spells) {
@@ -678,296 +777,154 @@ public class Choices extends TabController {
 					nameLabel.setTooltip(new Tooltip("(" + String.join(", ", traits.getStrings()) + ")"));
 				}
 
-				final String choiceName = spells ? talentName + rep : talentName;
-
-				final Label currentValue = new Label(actualTalent.getValue() == Integer.MIN_VALUE ? "n.a." : Integer.toString(actualTalent.getValue()));
+				final Label currentValue = new Label();
 				currentValue.setMinWidth(25);
 				currentValue.setAlignment(Pos.CENTER);
-				input.add(currentValue, 1, row);
-				actualTalent.valueProperty().addListener((_, _, newV) -> {
-					if (newV.intValue() == Integer.MIN_VALUE) {
-						currentValue.setText("n.a.");
-					} else {
-						currentValue.setText(newV.toString());
-					}
-				});
+				input.add(currentValue, 1, rowIndex);
+				currentValue.textProperty().bind(Bindings.when(actualTalent.valueProperty().lessThan(Integer.MIN_VALUE + 1)).then("n.a.")
+						.otherwise(actualTalent.valueProperty().asString()));
 
-				final ObservableList<String> possible = FXCollections.observableArrayList("n.a.");
-				for (int j = choices.getIntOrDefault("Minimum", useComplexity ? 0 : 1); j <= choices.getIntOrDefault("Maximum",
-						choices.getIntOrDefault("Punkte", 0)); ++j) {
-					possible.add(Integer.toString(j));
-				}
-				final ReactiveSpinner<String> value = new ReactiveSpinner<>(possible);
+				final ReactiveSpinner<String> value = new ReactiveSpinner<>(FXCollections.observableArrayList(possible));
 				value.setMinWidth(70);
 				value.setPrefWidth(70);
-				input.add(value, 2, row);
+				input.add(value, 2, rowIndex);
 
-				canSelect.addListener((_, _, newV) -> {
-					if (newV.intValue() <= 0 && "n.a.".equals(value.getValue())) {
-						value.setDisable(true);
-					} else {
-						value.setDisable(false);
-					}
-				});
-
-				final ValueChoice actualChoice = new ValueChoice(actualTalent, points, useComplexity, rep, primarySpells);
-				final int chosenValue = chosen.getIntOrDefault(choiceName, -1);
-				value.getValueFactory().setValue(chosenValue == -1 ? "n.a." : Integer.toString(chosenValue));
-				if (chosenValue == -1) {
-					actualChoice.value = null;
-				} else {
-					actualChoice.value = Integer.parseInt(value.getValue());
-					canSelect.set(canSelect.get() - 1);
-				}
-				actualChoice.apply(hero, true);
-				final int finalC = current;
+				value.getValueFactory().setValue(actualChoice.value == null ? "n.a." : Integer.toString(actualChoice.value));
+				value.disableProperty().bind(
+						Bindings.createBooleanBinding(() -> canSelect.get() <= 0 && "n.a.".equals(value.getValue()), canSelect, value.valueProperty()));
 				value.valueProperty().addListener((_, oldV, newV) -> {
 					actualChoice.unapply(hero);
-					actualChoice.value = "n.a.".equals(value.getValue()) ? null : Integer.parseInt(value.getValue());
+					actualChoice.value = "n.a.".equals(newV) ? null : Integer.parseInt(newV);
 					actualChoice.apply(hero, false);
-					if ("n.a.".equals(value.getValue())) {
-						chosen.removeKey(choiceName);
+					if ("n.a.".equals(newV)) {
+						chosen.removeKey(row.choiceName);
 					} else {
-						chosen.put(choiceName, Integer.parseInt(value.getValue()));
+						chosen.put(row.choiceName, Integer.parseInt(newV));
 					}
 					if ("n.a.".equals(newV) && !"n.a.".equals(oldV)) {
 						canSelect.set(canSelect.get() + 1);
 					} else if ("n.a.".equals(oldV) && !"n.a.".equals(newV)) {
 						canSelect.set(canSelect.get() - 1);
 					}
-					recalculateCanContinue();
-				});
-				actualTalent.valueProperty().addListener((_, _, newV) -> {
-					if (newV.intValue() == Integer.MIN_VALUE && "0".equals(value.getValue())) {
-						actualTalent.setValue(0);
-						actualTalent.getActual().put("temporary:ChoiceOnly", true);
-					}
 				});
 
-				final CheckBox primarySpell = needsPrimarySpells ? new CheckBox() : null;
-				final CheckBox primaryTalent = needsPrimaryTalents ? new CheckBox() : null;
-
 				if (needsPrimarySpells) {
-					input.add(primarySpell, 3, row);
+					final CheckBox primarySpell = new CheckBox();
+					input.add(primarySpell, 3, rowIndex);
 					GridPane.setHalignment(primarySpell, HPos.CENTER);
-
-					final SimpleBooleanProperty isExternallySet = new SimpleBooleanProperty(false);
-
-					availablePrimarySpells.addListener((_, _, newV) -> {
-						if (isExternallySet.get() || newV.intValue() <= 0 && !primarySpell.isSelected()) {
-							primarySpell.setDisable(true);
-						} else {
-							primarySpell.setDisable(false);
-						}
-					});
-
-					final boolean[] isSetup = { true };
-
-					primarySpell.selectedProperty().addListener((_, _, newV) -> {
-						if (!isExternallySet.get()) {
-							chosenPrimarySpells.set(finalC, newV);
-							((Spell) actualTalent).setPrimarySpell(newV);
-							if (needsPrimaryTalents && !primaryTalent.isSelected()) {
-								primaryTalent.setDisable(newV);
-							}
-							availablePrimarySpells.set(availablePrimarySpells.get() - (newV ? 1 : -1));
-							if (!"n.a.".equals(value.getValue()) && !isSetup[0]) {
-								points.set(points.get() + (Integer.parseInt(value.getValue()) + 1) * (newV ? 1 : -1));
-							}
-							recalculateCanContinue();
-						}
-					});
-
-					if (((Spell) actualTalent).isPrimarySpell()) {
-						if (!chosenPrimarySpells.getBool(finalC)) {
-							isExternallySet.set(true);
-							primarySpell.setDisable(true);
-						}
-						primarySpell.setSelected(true);
-					}
-
-					isSetup[0] = false;
-
-					((Spell) actualTalent).primarySpellProperty().addListener((_, _, newV) -> {
-						if (newV && !chosenPrimarySpells.getBool(finalC)) {
-							isExternallySet.set(true);
-							primarySpell.setDisable(true);
-							if (needsPrimaryTalents) {
-								primaryTalent.setDisable(true);
-							}
-						}
-						primarySpell.setSelected(newV);
-						if (!newV) {
-							isExternallySet.set(false);
-							if (availablePrimarySpells.get() > 0 && (!needsPrimaryTalents || !primaryTalent.isSelected())) {
-								primarySpell.setDisable(false);
-							}
-							if (needsPrimaryTalents && !primaryTalent.isSelected() && availablePrimaryTalents.get() > 0) {
-								primaryTalent.setDisable(false);
-							}
-						}
-					});
+					primarySpell.selectedProperty().bindBidirectional(row.primarySpell);
+					primarySpell.disableProperty().bind(row.primarySpellExternal
+							.or(availablePrimarySpells.lessThanOrEqualTo(0).and(row.primarySpell.not())).or(row.primaryTalent));
 				}
 
 				if (needsPrimaryTalents) {
-					input.add(primaryTalent, needsPrimarySpells ? 4 : 3, row);
+					final CheckBox primaryTalent = new CheckBox();
+					input.add(primaryTalent, needsPrimarySpells ? 4 : 3, rowIndex);
 					GridPane.setHalignment(primaryTalent, HPos.CENTER);
-
-					final SimpleBooleanProperty isExternallySet = new SimpleBooleanProperty(false);
-
-					availablePrimaryTalents.addListener((_, _, newV) -> {
-						if (isExternallySet.get() || newV.intValue() <= 0 && !primaryTalent.isSelected()
-								|| needsPrimarySpells && primarySpell.isSelected()) {
-							primaryTalent.setDisable(true);
-						} else {
-							primaryTalent.setDisable(false);
-						}
-					});
-
-					primaryTalent.selectedProperty().addListener((_, _, newV) -> {
-						if (!isExternallySet.get()) {
-							chosenPrimaryTalents.set(finalC, newV);
-							actualTalent.setPrimaryTalent(newV);
-							if (needsPrimarySpells) {
-								primarySpell.setDisable(newV);
-							}
-							availablePrimaryTalents.set(availablePrimaryTalents.get() - (newV ? 1 : -1));
-							recalculateCanContinue();
-						}
-					});
-
-					if (actualTalent.isPrimaryTalent()) {
-						if (!chosenPrimaryTalents.getBool(finalC)) {
-							isExternallySet.set(true);
-							primaryTalent.setDisable(true);
-						}
-						primaryTalent.setSelected(true);
-					}
-
-					actualTalent.primaryTalentProperty().addListener((_, _, newV) -> {
-						if (newV && !chosenPrimaryTalents.getBool(finalC)) {
-							isExternallySet.set(true);
-							primaryTalent.setDisable(true);
-						}
-						primaryTalent.setSelected(newV);
-						if (!newV) {
-							isExternallySet.set(false);
-							if (availablePrimaryTalents.get() > 0 && (!needsPrimarySpells || !primarySpell.isSelected())) {
-								primaryTalent.setDisable(false);
-							}
-							if (needsPrimarySpells && availablePrimarySpells.get() > 0) {
-								primarySpell.setDisable(false);
-							}
-						}
-					});
+					primaryTalent.selectedProperty().bindBidirectional(row.primaryTalent);
+					primaryTalent.disableProperty().bind(row.primaryTalentExternal
+							.or(availablePrimaryTalents.lessThanOrEqualTo(0).and(row.primaryTalent.not())).or(row.primarySpell));
 				}
-				++row;
+				++rowIndex;
 			}
-			++current;
-		}
-
-		// Issue a change in canSelect to disable excess controls
-		canSelect.set(canSelect.get() + 1);
-		canSelect.set(canSelect.get() - 1);
-		availablePrimarySpells.set(availablePrimarySpells.get() + 1);
-		availablePrimarySpells.set(availablePrimarySpells.get() - 1);
-		availablePrimaryTalents.set(availablePrimaryTalents.get() + 1);
-		availablePrimaryTalents.set(availablePrimaryTalents.get() - 1);
 
-		names.delete(names.length() - 2, names.length());
-
-		box.getChildren().add(scrollPane);
-		choiceNames.getItems().add(new ChoicePage(names.toString(), isValid));
-		pane.getChildren().add(box);
+			box.getChildren().add(scrollPane);
+			return box;
+		});
 	}
 
-	private void createSingleChoiceInput(final String targetName, final JSONObject choices, final JSONValue target, final boolean isEquipment) {
-		final ScrollPane scrollPane = new ScrollPane();
-		final GridPane input = new GridPane();
-		scrollPane.setContent(input);
-		scrollPane.setVisible(false);
-		scrollPane.setFitToHeight(true);
-		scrollPane.setFitToWidth(true);
-		input.setAlignment(Pos.CENTER);
-		input.setHgap(5);
-		input.setVgap(5);
-
-		final String modifiedTargetName = switch (targetName) {
-			case "Vorteile" -> "n Vorteil";
-			case "Nachteile" -> "n Nachteil";
-			case "Sonderfertigkeiten" -> " Sonderfertigkeit";
-			case "Verbilligte Sonderfertigkeiten" -> " verbilligte Sonderfertigkeit";
-			default -> "n Ausrüstungsgegenstand";
-		};
-		input.add(new Label("Wähle eine" + modifiedTargetName + " aus:"), 0, 0, 2, 1);
-
-		final StringBuilder names = new StringBuilder();
-		final ToggleGroup group = new ToggleGroup();
-
-		final SimpleBooleanProperty isValid = new SimpleBooleanProperty(false);
-		toSelect.add(isValid);
+	private ChoicePage createSingleChoiceInput(final String targetName, final JSONObject choices, final JSONValue target, final boolean isEquipment) {
+		final List<String> keys = new ArrayList<>();
+		final List<JSONObject> entries = new ArrayList<>();
+		final List<String> names = new ArrayList<>();
 
-		group.selectedToggleProperty().addListener((_, _, newV) -> {
-			if (newV != null) {
-				isValid.set(true);
-				recalculateCanContinue();
-			}
-			choices.put("Ausgewählt", group.getToggles().indexOf(newV));
-		});
-
-		final int[] i = { 0 };
 		for (final String choiceName : choices.keySet()) {
 			if ("Ausgewählt".equals(choiceName)) {
 				continue;
 			}
 
-			final Consumer<JSONObject> create = choice -> {
-				final String name;
-				if (isEquipment) {
-					name = choiceName;
-				} else {
-					name = DSAUtil.printProOrCon(choice, choiceName, HeroUtil.findProConOrSkill(choiceName)._1, true);
-				}
-				names.append(name);
-				names.append(", ");
-				input.add(new Label(name), 0, i[0] + 2);
-				final RadioButton check = new RadioButton();
-				check.setToggleGroup(group);
-				input.add(check, 1, i[0] + 2);
-				final Choice actualChoice = isEquipment ? new InventoryChoice(choiceName, choice)
-						: new ProConSkillChoice(choiceName, choice, (JSONObject) target, "Verbilligte Sonderfertigkeiten".equals(targetName));
-				if (choices.getIntOrDefault("Ausgewählt", -1) == i[0]) {
-					check.setSelected(true);
-					actualChoice.apply(hero, isEquipment ? ((JSONArray) target).contains("temporary:AppliedChoices")
-							: ((JSONObject) target).containsKey("temporary:AppliedChoices"));
-				}
-				final int currentI = i[0];
-				check.selectedProperty().addListener((_, _, newV) -> {
-					if (newV) {
-						actualChoice.apply(hero, false);
-						choices.put("Ausgewählt", currentI);
-					} else {
-						actualChoice.unapply(hero);
-					}
-				});
-				++i[0];
+			final JSONObject actual = isEquipment ? null : HeroUtil.findProConOrSkill(choiceName)._1;
+			final Consumer<JSONObject> add = choice -> {
+				keys.add(choiceName);
+				entries.add(choice);
+				names.add(isEquipment ? choiceName : DSAUtil.printProOrCon(choice, choiceName, actual, true));
 			};
 
-			final JSONObject actual = isEquipment ? null : HeroUtil.findProConOrSkill(choiceName)._1;
 			if (actual != null && (actual.containsKey("Auswahl") || actual.containsKey("Freitext"))) {
 				final JSONArray choice = choices.getArr(choiceName);
 				for (int j = 0; j < choice.size(); ++j) {
-					create.accept(choice.getObj(j));
+					add.accept(choice.getObj(j));
 				}
 			} else {
-				create.accept(choices.getObj(choiceName));
+				add.accept(choices.getObj(choiceName));
 			}
 		}
 
-		names.delete(names.length() - 2, names.length());
+		final Choice[] actualChoices = new Choice[entries.size()];
+		final int selected = choices.getIntOrDefault("Ausgewählt", -1);
+
+		final SimpleBooleanProperty isValid = new SimpleBooleanProperty(selected >= 0 && selected < actualChoices.length);
+		if (isValid.get()) {
+			actualChoices[selected] = createSingleChoice(targetName, keys.get(selected), entries.get(selected), target, isEquipment);
+			pendingChoices.apply(actualChoices[selected], isEquipment ? ((JSONArray) target).contains("temporary:AppliedChoices")
+					: ((JSONObject) target).containsKey("temporary:AppliedChoices"));
+		}
+
+		return new ChoicePage(String.join(", ", names), isValid, () -> "Keine Auswahl getroffen", () -> {
+			final ScrollPane scrollPane = new ScrollPane();
+			final GridPane input = new GridPane();
+			scrollPane.setContent(input);
+			scrollPane.setFitToHeight(true);
+			scrollPane.setFitToWidth(true);
+			input.setAlignment(Pos.CENTER);
+			input.setHgap(5);
+			input.setVgap(5);
+
+			final String modifiedTargetName = switch (targetName) {
+				case "Vorteile" -> "n Vorteil";
+				case "Nachteile" -> "n Nachteil";
+				case "Sonderfertigkeiten" -> " Sonderfertigkeit";
+				case "Verbilligte Sonderfertigkeiten" -> " verbilligte Sonderfertigkeit";
+				default -> "n Ausrüstungsgegenstand";
+			};
+			input.add(new Label("Wähle eine" + modifiedTargetName + " aus:"), 0, 0, 2, 1);
+
+			final ToggleGroup group = new ToggleGroup();
+			final int current = choices.getIntOrDefault("Ausgewählt", -1);
+			for (int i = 0; i < actualChoices.length; ++i) {
+				input.add(new Label(names.get(i)), 0, i + 2);
+				final RadioButton check = new RadioButton();
+				check.setToggleGroup(group);
+				input.add(check, 1, i + 2);
+				if (actualChoices[i] == null) {
+					actualChoices[i] = createSingleChoice(targetName, keys.get(i), entries.get(i), target, isEquipment);
+				}
+				if (current == i) {
+					check.setSelected(true);
+				}
+			}
+
+			group.selectedToggleProperty().addListener((_, oldV, newV) -> {
+				final ChoiceBatch batch = new ChoiceBatch(hero);
+				if (oldV != null) {
+					batch.unapply(actualChoices[group.getToggles().indexOf(oldV)]);
+				}
+				if (newV != null) {
+					batch.apply(actualChoices[group.getToggles().indexOf(newV)], false);
+					isValid.set(true);
+				}
+				batch.commit();
+				choices.put("Ausgewählt", group.getToggles().indexOf(newV));
+			});
+
+			return scrollPane;
+		});
+	}
 
-		choiceNames.getItems().add(new ChoicePage(names.toString(), isValid));
-		pane.getChildren().add(scrollPane);
+	private Choice createSingleChoice(final String targetName, final String name, final JSONObject choice, final JSONValue target,
+			final boolean isEquipment) {
+		return isEquipment ? new InventoryChoice(name, choice, appliedItems)
+				: new ProConSkillChoice(name, choice, (JSONObject) target, "Verbilligte Sonderfertigkeiten".equals(targetName), indices);
 	}
 
 	private void createSingleInputs(final String name, final JSONValue target, final boolean isEquipment, final JSONObject race, final JSONObject culture,
@@ -976,42 +933,23 @@ public class Choices extends TabController {
 		getChoices(name, choices, race, culture, profession, bgb);
 
 		for (final JSONObject choice : choices) {
-			createSingleChoiceInput(name, choice, target, isEquipment);
+			addPage(choice, () -> createSingleChoiceInput(name, choice, target, isEquipment));
 		}
 	}
 
-	private void createValueChoiceInput(final JSONObject choice, final boolean spells, final boolean primarySpells) {
-		final ScrollPane scrollPane = new ScrollPane();
-		final GridPane input = new GridPane();
-		scrollPane.setContent(input);
-		scrollPane.setVisible(false);
-		scrollPane.setFitToHeight(true);
-		scrollPane.setFitToWidth(true);
-		input.setAlignment(Pos.CENTER);
-		input.setHgap(5);
-		input.setVgap(5);
-
-		final StringBuilder names = new StringBuilder();
-		int indention = 0;
-		int additionalRows = 0;
-
+	private ChoicePage createValueChoiceInput(final JSONObject choice, final boolean spells, final boolean primarySpells) {
 		final JSONArray alternatives = choice.getArrOrDefault("Oder", null);
-
 		final int numGroups = alternatives == null ? 1 : alternatives.size();
+
+		final List<String> names = new ArrayList<>();
 		@SuppressWarnings("unchecked")
-		final LinkedList<ToggleGroup>[] groups = new LinkedList[numGroups];
-		for (int i = 0; i < numGroups; ++i) {
-			groups[i] = new LinkedList<>();
-		}
+		final List<Tuple<String, String>>[] rows = new List[numGroups];
 
 		final SimpleBooleanProperty isValid = new SimpleBooleanProperty(false);
-		toSelect.add(isValid);
 
 		boolean allZero = true;
 
-		for (int i = 0; i < (alternatives == null ? 1 : alternatives.size()); ++i) {
-			final int finalI = i;
-
+		for (int i = 0; i < numGroups; ++i) {
 			final JSONObject choices = alternatives == null ? choice : alternatives.getObj(i);
 
 			final JSONValue actualChoices = spells ? choices.getObj("Wahl") : choices.getArr("Wahl");
@@ -1030,94 +968,145 @@ public class Choices extends TabController {
 			}
 
 			for (int j = 0; j < numValues; ++j) {
-				final int finalJ = j;
-				final ToggleGroup current = new ToggleGroup();
-				groups[i].add(current);
-				current.selectedToggleProperty().addListener((_, _, newV) -> {
-					final int index = newV == null ? -1 : newV.getToggleGroup().getToggles().indexOf(newV);
-
-					if (!choices.getBoolOrDefault("Mehrfach", false)) {
-						for (int k = 0; k < numValues; k++) {
-							if (finalJ != k) {
-								final ToggleGroup col = groups[finalI].get(k);
-								if (index == col.getToggles().indexOf(col.getSelectedToggle())) {
-									col.selectToggle(col.getToggles().get((index + 1) % actualChoices.size()));
-								}
-							}
-						}
-					}
-					if (index != -1) {
-						groups: for (int k = 0; k < numGroups; ++k) {
-							if (k == finalI) {
-								final LinkedList<ToggleGroup> group = groups[k];
-								for (final ToggleGroup tg : group) {
-									if (tg.getSelectedToggle() == null) {
-										isValid.set(false);
-										canContinue.set(false);
-										continue groups;
-									}
-								}
-								isValid.set(true);
-								recalculateCanContinue();
-							} else {
-								final LinkedList<ToggleGroup> group = groups[k];
-								for (final ToggleGroup tg : group) {
-									tg.selectToggle(null);
-								}
-							}
-						}
-					}
-					chosen.set(finalJ, index);
-				});
-				final int value = values.getInt(j);
-				if (value != 0) {
+				if (values.getInt(j) != 0) {
 					allZero = false;
 				}
-				final Label label = new Label(value != 0 ? Util.getSignedIntegerString(value) : "L");
-				label.setAlignment(Pos.CENTER);
-				input.add(label, j + 2 + indention, 0);
 			}
 
 			String[] spellNames = null;
-			String rep = null;
 			if (spells) {
 				final Set<String> keySet = ((JSONObject) actualChoices).keySet();
 				spellNames = keySet.toArray(new String[keySet.size()]);
 			}
-			int current = 0;
+			rows[i] = new ArrayList<>();
 			for (int j = 0; j < actualChoices.size(); ++j) {
 				final String name = spells ? spellNames[j] : ((JSONArray) actualChoices).getString(j);
-				List<String> actualNames = new LinkedList<>();
-				if ("Fremdsprache".equals(name)) {
-					final JSONObject langs = ResourceManager.getResource("data/Talente").getObj("Sprachen und Schriften");
-					for (final String lang : langs.keySet()) {
-						if (!langs.getObj(lang).getBoolOrDefault("Schrift", false)) {
-							actualNames.add(lang);
-						}
-					}
-				} else if ("Fremdschrift".equals(name)) {
-					final JSONObject langs = ResourceManager.getResource("data/Talente").getObj("Sprachen und Schriften");
-					for (final String lang : langs.keySet()) {
-						if (langs.getObj(lang).getBoolOrDefault("Schrift", false)) {
-							actualNames.add(lang);
-						}
+				final String rep = spells ? ((JSONObject) actualChoices).getString(name) : null;
+				for (final String actualName : getActualNames(name)) {
+					if (allZero && getTalent(actualName, rep).getActual().getBoolOrDefault("temporary:RKPPrimaryTalent", false)) {
+						continue;
 					}
-				} else {
-					actualNames = Collections.singletonList(name);
+					rows[i].add(new Tuple<>(actualName, rep));
+					names.add(actualName);
 				}
-				if (spells) {
-					rep = ((JSONObject) actualChoices).getString(name);
+			}
+
+			boolean complete = true;
+			for (int k = 0; k < numValues; ++k) {
+				final int index = chosen.getInt(k);
+				if (index < 0 || index >= rows[i].size()) {
+					complete = false;
+					continue;
+				}
+				final Tuple<String, String> row = rows[i].get(index);
+				new TalentChoice(getTalent(row._1, row._2), values.getInt(k),
+						primarySpells || choices.getArrOrDefault("Hauszauber", new JSONArray(null)).contains(k)).apply(hero, true);
+			}
+			if (complete) {
+				isValid.set(true);
+			}
+		}
+
+		return new ChoicePage(String.join(", ", names), isValid, () -> "Nicht alle Werte vergeben", () -> {
+			final ScrollPane scrollPane = new ScrollPane();
+			final GridPane input = new GridPane();
+			scrollPane.setContent(input);
+			scrollPane.setFitToHeight(true);
+			scrollPane.setFitToWidth(true);
+			input.setAlignment(Pos.CENTER);
+			input.setHgap(5);
+			input.setVgap(5);
+
+			int indention = 0;
+			int additionalRows = 0;
+
+			@SuppressWarnings("unchecked")
+			final LinkedList<ToggleGroup>[] groups = new LinkedList[numGroups];
+			for (int i = 0; i < numGroups; ++i) {
+				groups[i] = new LinkedList<>();
+			}
+
+			final boolean[] isSetup = { true };
+
+			for (int i = 0; i < numGroups; ++i) {
+				final int finalI = i;
+
+				final JSONObject choices = alternatives == null ? choice : alternatives.getObj(i);
+
+				final int numChoices = (spells ? choices.getObj("Wahl") : choices.getArr("Wahl")).size();
+				final JSONArray values = choices.getArr("Werte");
+				final int numValues = values.size();
+				final JSONArray chosen = choices.getArr("Ausgewählt");
+
+				for (int j = 0; j < numValues; ++j) {
+					final int finalJ = j;
+					final ToggleGroup current = new ToggleGroup();
+					groups[i].add(current);
+					current.selectedToggleProperty().addListener((_, oldV, newV) -> {
+						if (!isSetup[0]) {
+							final boolean primaryTalent = choices.getBoolOrDefault("Leittalent", false);
+							final ChoiceBatch batch = new ChoiceBatch(hero);
+							if (oldV != null) {
+								final TalentChoice oldChoice = (TalentChoice) oldV.getUserData();
+								if (primaryTalent) {
+									oldChoice.talent.setPrimaryTalent(false);
+								}
+								batch.unapply(oldChoice);
+							}
+							if (newV != null) {
+								final TalentChoice newChoice = (TalentChoice) newV.getUserData();
+								if (primaryTalent) {
+									newChoice.talent.setPrimaryTalent(true);
+								}
+								batch.apply(newChoice, false);
+							}
+							batch.commit();
+						}
+
+						final int index = newV == null ? -1 : newV.getToggleGroup().getToggles().indexOf(newV);
+
+						if (!choices.getBoolOrDefault("Mehrfach", false)) {
+							for (int k = 0; k < numValues; k++) {
+								if (finalJ != k) {
+									final ToggleGroup col = groups[finalI].get(k);
+									if (index == col.getToggles().indexOf(col.getSelectedToggle())) {
+										col.selectToggle(col.getToggles().get((index + 1) % numChoices));
+									}
+								}
+							}
+						}
+						if (index != -1) {
+							groups: for (int k = 0; k < numGroups; ++k) {
+								if (k == finalI) {
+									final LinkedList<ToggleGroup> group = groups[k];
+									for (final ToggleGroup tg : group) {
+										if (tg.getSelectedToggle() == null) {
+											isValid.set(false);
+											continue groups;
+										}
+									}
+									isValid.set(true);
+								} else {
+									final LinkedList<ToggleGroup> group = groups[k];
+									for (final ToggleGroup tg : group) {
+										tg.selectToggle(null);
+									}
+								}
+							}
+						}
+						chosen.set(finalJ, index);
+					});
+					final int value = values.getInt(j);
+					final Label label = new Label(value != 0 ? Util.getSignedIntegerString(value) : "L");
+					label.setAlignment(Pos.CENTER);
+					input.add(label, j + 2 + indention, 0);
 				}
-				for (final String actualName : actualNames) {
-					final Talent actualTalent = getTalent(actualName, rep);
 
-					if (allZero && actualTalent.getActual().getBoolOrDefault("temporary:RKPPrimaryTalent", false)) {
-						continue;
-					}
+				int current = 0;
+				for (final Tuple<String, String> row : rows[i]) {
+					final Talent actualTalent = getTalent(row._1, row._2);
 
 					input.add(new Label(actualTalent.getDisplayName()), 0, current + 1 + additionalRows);
-					names.append(actualTalent.getName());
-					names.append(", ");
 
 					final Label currentValue = new Label();
 					currentValue.setPrefWidth(25);
@@ -1136,35 +1125,23 @@ public class Choices extends TabController {
 							check.setDisable(true);
 						}
 
-						final TalentChoice actualChoice = new TalentChoice(actualTalent, value,
-								primarySpells || choices.getArrOrDefault("Hauszauber", new JSONArray(null)).contains(k));
+						check.setUserData(new TalentChoice(actualTalent, value,
+								primarySpells || choices.getArrOrDefault("Hauszauber", new JSONArray(null)).contains(k)));
 						if (chosen.getInt(k).equals(current)) {
 							check.setSelected(true);
-							actualChoice.apply(hero, true);
 						}
-						check.selectedProperty().addListener((_, _, newV) -> {
-							if (choices.getBoolOrDefault("Leittalent", false)) {
-								actualTalent.setPrimaryTalent(newV);
-							}
-							if (newV) {
-								actualChoice.apply(hero, false);
-							} else {
-								actualChoice.unapply(hero);
-							}
-						});
 					}
 					++current;
 				}
-			}
 
-			indention += numValues;
-			additionalRows += actualChoices.size();
-		}
+				indention += numValues;
+				additionalRows += numChoices;
+			}
 
-		names.delete(names.length() - 2, names.length());
+			isSetup[0] = false;
 
-		choiceNames.getItems().add(new ChoicePage(names.toString(), isValid));
-		pane.getChildren().add(scrollPane);
+			return scrollPane;
+		});
 	}
 
 	@Override
@@ -1172,15 +1149,27 @@ public class Choices extends TabController {
 		tab.setDisable(true);
 
 		if (!forward) {
-			ml.set(null);
-			sl.set(null);
-			tl.set(null);
-			mlWriting.set(null);
+			languageAssignment.clear();
 		}
 
 		leftBox.getChildren().remove(0);
 	}
 
+	private static List<String> getActualNames(final String name) {
+		if ("Fremdsprache".equals(name) || "Fremdschrift".equals(name)) {
+			final boolean writing = "Fremdschrift".equals(name);
+			final List<String> actualNames = new LinkedList<>();
+			final JSONObject langs = ResourceManager.getResource("data/Talente").getObj("Sprachen und Schriften");
+			for (final String lang : langs.keySet()) {
+				if (langs.getObj(lang).getBoolOrDefault("Schrift", false) == writing) {
+					actualNames.add(lang);
+				}
+			}
+			return actualNames;
+		}
+		return Collections.singletonList(name);
+	}
+
 	private void getChoices(final String choice, final List<JSONObject> choices, final JSONObject source) {
 		final JSONObject actual = source.getObjOrDefault(choice, null);
 		if (actual != null && actual.containsKey("Wahl")) {
@@ -1207,21 +1196,21 @@ public class Choices extends TabController {
 		if (talents.containsKey(name))
 			return talents.get(name);
 		else if ("Muttersprache".equals(name)) {
-			actualTalent = new ProxyTalent("Muttersprache", ml.get() == null ? null : getTalent(ml.get().getName(), null),
+			final Talent motherTongue = languageAssignment.getMotherTongue();
+			actualTalent = new ProxyTalent("Muttersprache", motherTongue == null ? null : getTalent(motherTongue.getName(), null),
 					hero.getObj("Talente").getObj("Sprachen und Schriften"), languageBonus);
 		} else if ("Muttersprache:Schrift".equals(name)) {
-			actualTalent = new ProxyTalent("L/S Muttersprache", mlWriting.get() == null ? null : getTalent(mlWriting.get().getName(), null),
+			final Talent writing = languageAssignment.getWriting();
+			actualTalent = new ProxyTalent("L/S Muttersprache", writing == null ? null : getTalent(writing.getName(), null),
 					hero.getObj("Talente").getObj("Sprachen und Schriften"), writingBonus);
 		} else {
-			final Tuple<JSONObject, String> talentAndGroup = HeroUtil.findTalent(name);
-			final JSONObject currentTalent = talentAndGroup._1;
-			final JSONObject group = representation != null ? hero.getObj("Zauber") : hero.getObj("Talente").getObj(talentAndGroup._2);
+			final TalentCatalog.Entry entry = TalentCatalog.getInstance().get(name);
+			final JSONObject currentTalent = entry.talent;
+			final JSONObject group = representation != null ? hero.getObj("Zauber") : hero.getObj("Talente").getObj(entry.group);
 			JSONValue actual = HeroUtil.findActualTalent(hero, name)._1;
-			JSONObject talentGroup = ResourceManager.getResource("data/Talentgruppen").getObj(talentAndGroup._2);
-			if ("Sprachen und Schriften".equals(talentAndGroup._2)) {
-				talentGroup = talentGroup
-						.getObj(ResourceManager.getResource("data/Talente").getObj("Sprachen und Schriften").getObj(name).getBoolOrDefault("Schrift", false)
-								? "Schriften" : "Sprachen");
+			JSONObject talentGroup = ResourceManager.getResource("data/Talentgruppen").getObj(entry.group);
+			if ("Sprachen und Schriften".equals(entry.group)) {
+				talentGroup = talentGroup.getObj(entry.isWriting ? "Schriften" : "Sprachen");
 			}
 			if (actual == null) {
 				final JSONObject talent;
@@ -1229,7 +1218,7 @@ public class Choices extends TabController {
 				if (representation != null) {
 					actual = new JSONObject(group);
 					group.put(name, (JSONObject) actual);
-					if (currentTalent.containsKey("Auswahl") || currentTalent.containsKey("Freitext")) {
+					if (entry.isSelectable()) {
 						final JSONArray rep = new JSONArray(actual);
 						talent = new JSONObject(rep);
 						rep.add(talent);
@@ -1241,7 +1230,7 @@ public class Choices extends TabController {
 					talent.put("aktiviert", false);
 					actualTalent = Spell.getSpell(name, currentTalent, talent, (JSONObject) actual, group, representation);
 				} else {
-					if (currentTalent.containsKey("Auswahl") || currentTalent.containsKey("Freitext")) {
+					if (entry.isSelectable()) {
 						actual = new JSONArray(group);
 						group.put(name, (JSONArray) actual);
 						talent = new JSONObject(actual);
@@ -1250,13 +1239,13 @@ public class Choices extends TabController {
 						talent = new JSONObject(group);
 						group.put(name, talent);
 					}
-					if (!currentTalent.getBoolOrDefault("Basis", false)) {
+					if (!entry.isBasis) {
 						talent.put("aktiviert", false);
 					}
 					actualTalent = Talent.getTalent(name, talentGroup, currentTalent, hero, talent, group);
 				}
 				talent.put("temporary:ChoiceOnly", true);
-			} else if (currentTalent.containsKey("Auswahl") || currentTalent.containsKey("Freitext")) {
+			} else if (entry.isSelectable()) {
 				actualTalent = representation != null
 						? Spell.getSpell(name, currentTalent, ((JSONObject) actual).getArr(representation).getObj(0), (JSONObject) actual, group,
 								representation)
@@ -1271,13 +1260,15 @@ public class Choices extends TabController {
 		return actualTalent;
 	}
 
-	private void recalculateCanContinue() {
-		for (final BooleanProperty page : toSelect) {
-			if (!page.get()) {
-				canContinue.set(false);
-				return;
-			}
+	private void updateLanguageProxies() {
+		final JSONObject languageGroup = hero.getObj("Talente").getObj("Sprachen und Schriften");
+		final Talent motherTongue = languageAssignment.getMotherTongue();
+		if (motherTongue != null && talents.get("Muttersprache") instanceof final ProxyTalent proxy) {
+			proxy.changeTalent(motherTongue, languageGroup);
+		}
+		final Talent writing = languageAssignment.getWriting();
+		if (writing != null && talents.get("Muttersprache:Schrift") instanceof final ProxyTalent proxy) {
+			proxy.changeTalent(writing, languageGroup);
 		}
-		canContinue.set(true);
 	}
 }
@@ -15,38 +15,66 @@
  */
 package chargen.choices;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import dsatool.resources.ResourceManager;
 import jsonant.value.JSONArray;
 import jsonant.value.JSONObject;
 
 public class InventoryChoice extends Choice {
-	private final JSONObject actual;
+	private static JSONObject catalog;
+	private static final Map<String, JSONObject> baseItems = new HashMap<>();
 
-	public InventoryChoice(final String name, final JSONObject actual) {
+	private static synchronized JSONObject getBaseItem(final String name) {
 		final JSONObject items = ResourceManager.getResource("data/Ausruestung");
-		JSONObject item;
-		if (items.containsKey(name)) {
-			item = items.getObj(name).clone(null);
-			item.addAll(actual, true);
-		} else {
-			item = actual.clone(null);
-		}
-		if (!item.containsKey("Name")) {
-			item.put("Name", name);
+		if (items != catalog) {
+			baseItems.clear();
+			catalog = items;
 		}
-		this.actual = item;
+		return baseItems.computeIfAbsent(name, _ -> {
+			final JSONObject item = items.containsKey(name) ? items.getObj(name).clone(null) : new JSONObject(null);
+			if (!item.containsKey("Name")) {
+				item.put("Name", name);
+			}
+			return item;
+		});
+	}
+
+	private final String name;
+	private final JSONObject actual;
+	private final Map<JSONObject, JSONObject> appliedItems;
+
+	public InventoryChoice(final String name, final JSONObject actual, final Map<JSONObject, JSONObject> appliedItems) {
+		this.name = name;
+		this.actual = actual;
+		this.appliedItems = appliedItems;
 	}
 
 	@Override
 	public void apply(final JSONObject hero, final boolean alreadyApplied) {
-		if (alreadyApplied) return;
+		if (alreadyApplied) {
+			return;
+		}
 		final JSONArray target = hero.getObj("Besitz").getArr("Ausrüstung");
-		target.add(actual.clone(target));
+		final JSONObject item = getBaseItem(name).clone(target);
+		item.addAll(actual, true);
+		target.add(item);
+		appliedItems.put(actual, item);
 	}
 
 	@Override
 	public void unapply(final JSONObject hero) {
+		final JSONObject item = appliedItems.remove(actual);
+		if (item == null) {
+			return;
+		}
 		final JSONArray target = hero.getObj("Besitz").getArr("Ausrüstung");
-		target.remove(actual);
+		for (int i = target.size() - 1; i >= 0; --i) {
+			if (target.getUnsafe(i) == item) {
+				target.removeAt(i);
+				break;
+			}
+		}
 	}
 }
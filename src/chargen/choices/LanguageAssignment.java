@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.choices;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import dsa41basis.hero.Talent;
+
+public class LanguageAssignment {
+	public static <T> Map<T, Integer> contributions(final T motherTongue, final T secondLanguage, final T teachingLanguage, final T writing, final int KL,
+			final int languageBonus, final int writingBonus) {
+		final Map<T, Integer> result = new IdentityHashMap<>();
+		if (motherTongue != null) {
+			result.merge(motherTongue, KL - 2 + languageBonus, Integer::sum);
+		}
+		if (secondLanguage != null) {
+			result.merge(secondLanguage, KL - 4, Integer::sum);
+		}
+		if (teachingLanguage != null) {
+			if (teachingLanguage == motherTongue) {
+				result.merge(teachingLanguage, 4, Integer::sum);
+			} else if (teachingLanguage != secondLanguage) {
+				result.merge(teachingLanguage, KL - 4, Integer::sum);
+			}
+		}
+		if (writing != null) {
+			result.merge(writing, writingBonus, Integer::sum);
+		}
+		return result;
+	}
+
+	public static <T> Map<T, Set<String>> markers(final T motherTongue, final T secondLanguage, final T teachingLanguage, final T writing) {
+		final Map<T, Set<String>> result = new IdentityHashMap<>();
+		if (motherTongue != null) {
+			result.computeIfAbsent(motherTongue, _ -> new HashSet<>()).add("Muttersprache");
+		}
+		if (secondLanguage != null) {
+			result.computeIfAbsent(secondLanguage, _ -> new HashSet<>()).add("Zweitsprache");
+		}
+		if (teachingLanguage != null) {
+			result.computeIfAbsent(teachingLanguage, _ -> new HashSet<>()).add("Lehrsprache");
+		}
+		if (writing != null) {
+			result.computeIfAbsent(writing, _ -> new HashSet<>()).add("Muttersprache");
+		}
+		return result;
+	}
+
+	private Talent motherTongue;
+	private Talent secondLanguage;
+	private Talent teachingLanguage;
+	private Talent writing;
+	private int KL;
+	private int languageBonus;
+	private int writingBonus;
+
+	private Map<Talent, Integer> applied = new IdentityHashMap<>();
+	private Map<Talent, Set<String>> appliedMarkers = new IdentityHashMap<>();
+	private Talent appliedWriting;
+
+	private boolean deferred = false;
+
+	public void apply() {
+		deferred = false;
+
+		final Map<Talent, Integer> target = contributions(motherTongue, secondLanguage, teachingLanguage, writing, KL, languageBonus, writingBonus);
+		final Map<Talent, Set<String>> targetMarkers = markers(motherTongue, secondLanguage, teachingLanguage, writing);
+
+		for (final Map.Entry<Talent, Integer> entry : applied.entrySet()) {
+			if (!target.containsKey(entry.getKey())) {
+				final Talent talent = entry.getKey();
+				final int value = (talent.getValue() == Integer.MIN_VALUE ? 0 : talent.getValue()) - entry.getValue();
+				talent.setValue(value == 0 && talent != appliedWriting ? Integer.MIN_VALUE : value);
+			}
+		}
+		for (final Map.Entry<Talent, Integer> entry : target.entrySet()) {
+			final int difference = entry.getValue() - applied.getOrDefault(entry.getKey(), 0);
+			if (difference != 0) {
+				final Talent talent = entry.getKey();
+				talent.setValue((talent.getValue() == Integer.MIN_VALUE ? 0 : talent.getValue()) + difference);
+			}
+		}
+
+		for (final Map.Entry<Talent, Set<String>> entry : appliedMarkers.entrySet()) {
+			final Set<String> remaining = targetMarkers.getOrDefault(entry.getKey(), Collections.emptySet());
+			for (final String marker : entry.getValue()) {
+				if (!remaining.contains(marker)) {
+					entry.getKey().getActual().removeKey(marker);
+				}
+			}
+		}
+		for (final Map.Entry<Talent, Set<String>> entry : targetMarkers.entrySet()) {
+			final Set<String> existing = appliedMarkers.getOrDefault(entry.getKey(), Collections.emptySet());
+			for (final String marker : entry.getValue()) {
+				if (!existing.contains(marker)) {
+					entry.getKey().getActual().put(marker, true);
+				}
+			}
+		}
+
+		applied = target;
+		appliedMarkers = targetMarkers;
+		appliedWriting = writing;
+	}
+
+	public void begin(final int KL) {
+		deferred = true;
+		this.KL = KL;
+		motherTongue = null;
+		secondLanguage = null;
+		teachingLanguage = null;
+		writing = null;
+	}
+
+	public void clear() {
+		motherTongue = null;
+		secondLanguage = null;
+		teachingLanguage = null;
+		writing = null;
+		apply();
+	}
+
+	public Talent getMotherTongue() {
+		return motherTongue;
+	}
+
+	public Talent getSecondLanguage() {
+		return secondLanguage;
+	}
+
+	public Talent getTeachingLanguage() {
+		return teachingLanguage;
+	}
+
+	public Talent getWriting() {
+		return writing;
+	}
+
+	public void reset() {
+		motherTongue = null;
+		secondLanguage = null;
+		teachingLanguage = null;
+		writing = null;
+		applied = new IdentityHashMap<>();
+		appliedMarkers = new IdentityHashMap<>();
+		appliedWriting = null;
+	}
+
+	public void setLanguageBonus(final int languageBonus) {
+		this.languageBonus = languageBonus;
+		update();
+	}
+
+	public void setMotherTongue(final Talent language, final Talent writing) {
+		motherTongue = language;
+		this.writing = writing;
+		update();
+	}
+
+	public void setSecondLanguage(final Talent language) {
+		secondLanguage = language;
+		update();
+	}
+
+	public void setTeachingLanguage(final Talent language) {
+		teachingLanguage = language;
+		update();
+	}
+
+	public void setWritingBonus(final int writingBonus) {
+		this.writingBonus = writingBonus;
+		update();
+	}
+
+	private void update() {
+		if (!deferred) {
+			apply();
+		}
+	}
+}
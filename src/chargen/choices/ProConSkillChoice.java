@@ -15,7 +15,9 @@
  */
 package chargen.choices;
 
-import chargen.util.ChargenUtil;
+import java.util.Map;
+
+import chargen.util.ChoiceIndex;
 import dsa41basis.util.HeroUtil;
 import jsonant.value.JSONArray;
 import jsonant.value.JSONObject;
@@ -29,13 +31,16 @@ public class ProConSkillChoice extends Choice {
 	private final boolean hasChoice;
 	private final boolean hasFreetext;
 	private final boolean cheaperSkills;
+	private final Map<JSONObject, ChoiceIndex> indices;
 	private boolean pooled = false;
 
-	public ProConSkillChoice(final String name, final JSONObject actual, final JSONObject target, final boolean cheaperSkills) {
+	public ProConSkillChoice(final String name, final JSONObject actual, final JSONObject target, final boolean cheaperSkills,
+			final Map<JSONObject, ChoiceIndex> indices) {
 		this.name = name;
 		this.actual = actual;
 		this.target = target;
 		this.cheaperSkills = cheaperSkills;
+		this.indices = indices;
 		proConSkill = HeroUtil.findProConOrSkill(name)._1;
 		isLeveled = proConSkill != null && proConSkill.getBoolOrDefault("Abgestuft", false);
 		hasChoice = proConSkill != null && proConSkill.containsKey("Auswahl");
@@ -44,10 +49,13 @@ public class ProConSkillChoice extends Choice {
 
 	@Override
 	public void apply(final JSONObject hero, final boolean alreadyApplied) {
-		if (alreadyApplied) return;
+		if (alreadyApplied) {
+			return;
+		}
 		if (hasChoice || hasFreetext) {
 			final JSONArray targetArray = target.getArr(name);
-			final JSONObject match = ChargenUtil.match(targetArray, actual, hasChoice, hasFreetext);
+			final ChoiceIndex index = indices.computeIfAbsent(target, ChoiceIndex::new);
+			final JSONObject match = index.match(name, actual, hasChoice, hasFreetext);
 			if (match != null) {
 				if (isLeveled) {
 					match.put("Stufe", match.getIntOrDefault("Stufe", 0) + actual.getIntOrDefault("Stufe", 0));
@@ -59,7 +67,9 @@ public class ProConSkillChoice extends Choice {
 					target.put("temporary:Pool", target.getIntOrDefault("temporary:Pool", 0) + proConSkill.getIntOrDefault("Kosten", 0));
 				}
 			} else {
-				targetArray.add(actual.clone(targetArray));
+				final JSONObject added = actual.clone(targetArray);
+				targetArray.add(added);
+				index.add(name, added);
 				if (!cheaperSkills) {
 					HeroUtil.applyEffect(hero, name, proConSkill, actual);
 				}
@@ -93,7 +103,8 @@ public class ProConSkillChoice extends Choice {
 		}
 		if (hasChoice || hasFreetext) {
 			final JSONArray targetArray = target.getArr(name);
-			final JSONObject match = ChargenUtil.match(targetArray, actual, hasChoice, hasFreetext);
+			final ChoiceIndex index = indices.computeIfAbsent(target, ChoiceIndex::new);
+			final JSONObject match = index.match(name, actual, hasChoice, hasFreetext);
 			if (isLeveled) {
 				match.put("Stufe", match.getIntOrDefault("Stufe", 0) - actual.getIntOrDefault("Stufe", 0));
 			}
@@ -102,6 +113,7 @@ public class ProConSkillChoice extends Choice {
 					match.put("Verbilligungen", match.getInt("Verbilligungen") - 1);
 				} else {
 					targetArray.remove(match);
+					index.remove(name, match);
 				}
 			}
 			if (!cheaperSkills) {
@@ -28,6 +28,7 @@ public class ValueChoice extends Choice {
 	public final String rep;
 	public Integer value = 0;
 	public final boolean primarySpell;
+	private int complexity = 1;
 
 	public ValueChoice(final Talent actual, final IntegerProperty points, final boolean useComplexity, final String rep, final boolean primarySpell) {
 		talent = actual;
@@ -35,6 +36,18 @@ public class ValueChoice extends Choice {
 		this.useComplexity = useComplexity;
 		this.rep = rep;
 		this.primarySpell = primarySpell;
+
+		if (useComplexity) {
+			if (rep != null) {
+				complexity = HeroUtil.getSpellBaseComplexity(actual.getName(), rep);
+			} else {
+				complexity = HeroUtil.getTalentBaseComplexity(actual.getName());
+			}
+		}
+	}
+
+	private int getComplexity() {
+		return useComplexity && rep != null && ((Spell) talent).isPrimarySpell() ? complexity - 1 : complexity;
 	}
 
 	@Override
@@ -55,9 +68,7 @@ public class ValueChoice extends Choice {
 		}
 		if (value == null) return;
 
-		points.setValue(points.getValue() - (value + (useComplexity ? unapply ? -1 : 1 : 0))
-				* (useComplexity ? rep != null ? HeroUtil.getSpellBaseComplexity(talent.getName(), rep) + (((Spell) talent).isPrimarySpell() ? -1 : 0)
-						: HeroUtil.getTalentBaseComplexity(talent.getName()) : 1));
+		points.setValue(points.getValue() - (value + (useComplexity ? unapply ? -1 : 1 : 0)) * getComplexity());
 		if (primarySpell) {
 			final JSONObject actual = talent.getActual();
 			if (unapply) {
@@ -20,7 +20,7 @@ import java.util.List;
 
 import chargen.race_culture_profession.BGBVeteranSelector.BGBVeteran;
 import chargen.ui.TabController;
-import chargen.util.ChargenUtil;
+import chargen.util.ChoiceIndex;
 import dsa41basis.util.HeroUtil;
 import dsa41basis.util.RequirementsUtil;
 import dsatool.resources.ResourceManager;
@@ -239,6 +239,7 @@ public class ProConSkillSelectors extends TabController {
 		final JSONObject actualSkills = hero.getObj("Sonderfertigkeiten");
 		final JSONObject cheaperSkills = hero.getObj("Verbilligte Sonderfertigkeiten");
 
+		final ChoiceIndex index = new ChoiceIndex(actualSkills);
 		final List<String> toRemove = new ArrayList<>();
 		int temporary = cheaperSkills.getIntOrDefault("temporary:Pool", 0);
 		for (final String name : cheaperSkills.keySet()) {
@@ -250,8 +251,7 @@ public class ProConSkillSelectors extends TabController {
 				final JSONArray cheaperSkillsArray = cheaperSkills.getArr(name);
 				for (int i = 0; i < cheaperSkillsArray.size(); ++i) {
 					final JSONObject current = cheaperSkillsArray.getObj(i);
-					final JSONObject match = ChargenUtil.match(actualSkills.getArr(name), current, skill.containsKey("Auswahl"),
-							skill.containsKey("Freitext"));
+					final JSONObject match = index.match(name, current, skill.containsKey("Auswahl"), skill.containsKey("Freitext"));
 					if (match != null) {
 						temporary += skill.getIntOrDefault("Kosten", 0) * current.getIntOrDefault("Verbilligungen", 1);
 						cheaperSkillsArray.removeAt(i);
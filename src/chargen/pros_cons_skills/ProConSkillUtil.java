@@ -15,6 +15,7 @@
  */
 package chargen.pros_cons_skills;
 
+import chargen.util.ChargenUtil;
 import dsatool.gui.GUIUtil;
 import dsatool.ui.GraphicTableCell;
 import dsatool.ui.IntegerSpinnerTableCell;
@@ -42,6 +43,7 @@ public class ProConSkillUtil {
 		final boolean isCheaperSkills = "Verbilligte Sonderfertigkeiten".equals(type);
 
 		nameColumn.setText(type);
+		nameColumn.setComparator(ChargenUtil.collationComparator);
 		nameColumn.setCellFactory(_ -> new TextFieldTableCell<>() {
 			@Override
 			public void updateItem(final String item, final boolean empty) {
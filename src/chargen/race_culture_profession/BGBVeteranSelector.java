@@ -15,6 +15,7 @@
  */
 package chargen.race_culture_profession;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Function;
 
@@ -52,6 +53,7 @@ public class BGBVeteranSelector {
 	private boolean update = true;
 	private Function<RKP, Boolean> suggested;
 	private Function<RKP, Boolean> possible;
+	private Object inputs;
 
 	public BGBVeteranSelector(final Runnable updateValue, final JSONObject generationState) {
 		this.updateValue = updateValue;
@@ -130,9 +132,6 @@ public class BGBVeteranSelector {
 
 	public void setFilter(final String filterString) {
 		selector.setFilter(filterString);
-		if (veteranChoice.isSelected()) {
-			setVeteran();
-		}
 	}
 
 	@FXML
@@ -167,7 +166,8 @@ public class BGBVeteranSelector {
 		}
 	}
 
-	public void setSuggestedPossible(final Function<RKP, Boolean> suggested, final Function<RKP, Boolean> possible) {
+	public void setSuggestedPossible(final Object inputs, final Function<RKP, Boolean> suggested, final Function<RKP, Boolean> possible) {
+		this.inputs = inputs;
 		this.suggested = suggested;
 		this.possible = possible;
 		updateSuggestedPossible();
@@ -212,10 +212,11 @@ public class BGBVeteranSelector {
 			} while (invalidPros == null && profession != null);
 			return invalidPros == null || !invalidPros.containsKey(bgbChoice.isSelected() ? "Breitgefächerte Bildung" : "Veteran");
 		};
+		final Object actualInputs = inputs != null ? Arrays.asList(inputs, getType()) : null;
 		if (!noneChoice.isSelected() && suggested != null && possible != null) {
-			selector.updateSuggestedPossible(suggested, isPossible);
+			selector.updateSuggestedPossible(actualInputs, suggested, isPossible);
 		} else {
-			selector.updateSuggestedPossible(_ -> false, isPossible);
+			selector.updateSuggestedPossible(actualInputs, _ -> false, isPossible);
 		}
 	}
 
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.race_culture_profession;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import jsonant.value.JSONArray;
+import jsonant.value.JSONObject;
+import jsonant.value.JSONValue;
+
+class BuildCache {
+	private static class Built {
+		private final JSONObject mutable;
+		private final List<String> sharedKeys = new ArrayList<>();
+		private final List<JSONValue> sharedValues = new ArrayList<>();
+
+		private Built(final JSONObject built) {
+			for (final String key : new ArrayList<>(built.keySet())) {
+				if (!MUTABLE_SECTIONS.contains(key) && built.getUnsafe(key) instanceof final JSONValue value) {
+					sharedKeys.add(key);
+					sharedValues.add(value);
+					built.removeKey(key);
+				}
+			}
+			mutable = built;
+		}
+
+		private JSONObject get(final JSONValue parent) {
+			final JSONObject result = mutable.clone(parent);
+			for (int i = 0; i < sharedKeys.size(); ++i) {
+				if (sharedValues.get(i) instanceof final JSONObject obj) {
+					result.put(sharedKeys.get(i), obj);
+				} else {
+					result.put(sharedKeys.get(i), (JSONArray) sharedValues.get(i));
+				}
+			}
+			return result;
+		}
+	}
+
+	static final Set<String> MUTABLE_SECTIONS = Set.of("Vorteile", "Nachteile", "Sonderfertigkeiten", "Verbilligte Sonderfertigkeiten", "Talente",
+			"Sprachen", "Hauszauber", "Zauber", "Ausrüstung");
+
+	private static class Key {
+		private final JSONObject data;
+		private final JSONObject[] variants;
+		private final boolean female;
+		private final int hash;
+
+		private Key(final RKP rkp, final List<RKP> variants, final boolean female) {
+			data = rkp.data;
+			this.variants = new JSONObject[variants.size()];
+			int hash = System.identityHashCode(data) * 31 + (female ? 1 : 0);
+			for (int i = 0; i < this.variants.length; ++i) {
+				this.variants[i] = variants.get(i).data;
+				hash = hash * 31 + System.identityHashCode(this.variants[i]);
+			}
+			this.female = female;
+			this.hash = hash;
+		}
+
+		@Override
+		public boolean equals(final Object other) {
+			if (!(other instanceof final Key key) || key.data != data || key.female != female || key.variants.length != variants.length) return false;
+			for (int i = 0; i < variants.length; ++i) {
+				if (key.variants[i] != variants[i]) return false;
+			}
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	private final Map<Key, Built> cache;
+	private CompatibilityIndex index;
+
+	BuildCache(final int capacity) {
+		cache = new LinkedHashMap<>(capacity, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Key, Built> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	void clear() {
+		cache.clear();
+	}
+
+	JSONObject get(final RKP rkp, final List<RKP> variants, final boolean female, final BiFunction<RKP, List<RKP>, JSONObject> builder,
+			final JSONValue parent) {
+		final CompatibilityIndex current = CompatibilityIndex.getInstance();
+		if (current != index) {
+			clear();
+			index = current;
+		}
+		return cache.computeIfAbsent(new Key(rkp, variants, female), _ -> new Built(builder.apply(rkp, variants))).get(parent);
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.race_culture_profession;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+import jsonant.value.JSONArray;
+import jsonant.value.JSONObject;
+
+class CollectionPipeline {
+	private static void add(final JSONArray target, final Object value) {
+		if (value instanceof final JSONObject obj) {
+			target.add(obj.clone(target));
+		} else if (value instanceof final JSONArray arr) {
+			target.add(arr.clone(target));
+		} else if (value instanceof final Boolean bool) {
+			target.add(bool);
+		} else if (value instanceof final String str) {
+			target.add(str);
+		} else if (value instanceof Double || value instanceof Float) {
+			target.add(((Number) value).doubleValue());
+		} else if (value instanceof final Number number) {
+			target.add(number.intValue());
+		}
+	}
+
+	private static void merge(final JSONObject target, final JSONObject fragment) {
+		for (final String key : fragment.keySet()) {
+			final Object value = fragment.getUnsafe(key);
+			final Object existing = target.getUnsafe(key);
+			if (value instanceof final JSONObject obj) {
+				if (existing instanceof final JSONObject targetObj) {
+					merge(targetObj, obj);
+				} else {
+					target.put(key, obj.clone(target));
+				}
+			} else if (value instanceof final JSONArray arr) {
+				if (existing instanceof final JSONArray targetArr) {
+					for (int i = 0; i < arr.size(); ++i) {
+						add(targetArr, arr.getUnsafe(i));
+					}
+				} else {
+					target.put(key, arr.clone(target));
+				}
+			} else if (value instanceof final Boolean bool) {
+				target.put(key, bool);
+			} else if (value instanceof final String str) {
+				target.put(key, str);
+			} else if (value instanceof Double || value instanceof Float) {
+				target.put(key, ((Number) value).doubleValue());
+			} else if (value instanceof final Number number) {
+				target.put(key, number.intValue());
+			}
+		}
+	}
+
+	private final JSONObject hero;
+	private final boolean parallel;
+	private final Map<String, Consumer<JSONObject>> collectors = new LinkedHashMap<>();
+	private final Map<String, JSONObject> fragments = new LinkedHashMap<>();
+
+	CollectionPipeline(final JSONObject hero, final boolean parallel) {
+		this.hero = hero;
+		this.parallel = parallel;
+	}
+
+	void add(final String section, final Consumer<JSONObject> collector) {
+		collectors.put(section, collector);
+	}
+
+	void compute() {
+		fragments.clear();
+		final List<RecursiveAction> tasks = new ArrayList<>(collectors.size());
+		for (final Map.Entry<String, Consumer<JSONObject>> collector : collectors.entrySet()) {
+			final JSONObject fragment = new JSONObject(null);
+			fragments.put(collector.getKey(), fragment);
+			tasks.add(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					collector.getValue().accept(fragment);
+				}
+			});
+		}
+
+		if (parallel && tasks.size() > 1) {
+			ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
+				}
+			});
+		} else {
+			for (final RecursiveAction task : tasks) {
+				task.invoke();
+			}
+		}
+	}
+
+	void merge(final String section) {
+		final JSONObject fragment = fragments.remove(section);
+		if (fragment == null) {
+			return;
+		}
+		final JSONObject existing = hero.getObjOrDefault(section, null);
+		if (existing == null || existing.size() == 0) {
+			hero.put(section, fragment.clone(hero));
+		} else {
+			merge(existing, fragment);
+		}
+	}
+}
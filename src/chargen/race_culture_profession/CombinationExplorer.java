@@ -0,0 +1,238 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.race_culture_profession;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import dsatool.resources.ResourceManager;
+import dsatool.util.Tuple;
+import jsonant.value.JSONObject;
+
+public class CombinationExplorer {
+	public static class Combination {
+		public final RKP race;
+		public final List<RKP> raceVariants;
+		public final RKP culture;
+		public final List<RKP> cultureVariants;
+		public final RKP profession;
+		public final List<RKP> professionVariants;
+		public final int cost;
+		public final String gender;
+
+		private Combination(final RKP race, final List<RKP> raceVariants, final RKP culture, final List<RKP> cultureVariants, final RKP profession,
+				final List<RKP> professionVariants, final int cost, final String gender) {
+			this.race = race;
+			this.raceVariants = raceVariants;
+			this.culture = culture;
+			this.cultureVariants = cultureVariants;
+			this.profession = profession;
+			this.professionVariants = professionVariants;
+			this.cost = cost;
+			this.gender = gender;
+		}
+	}
+
+	private static final String MALE = "männlich";
+	private static final String FEMALE = "weiblich";
+
+	private static final int MAX_VARIANTS = 12;
+	private static final int MAX_VARIANT_SUBSETS = 1 << MAX_VARIANTS;
+
+	private static void collectChoices(final RKP.Type type, final JSONObject data, final RKP parent, final List<Tuple<RKP, List<List<RKP>>>> result,
+			final List<RKP> truncated) {
+		if (data == null) return;
+		for (final String name : data.keySet()) {
+			final JSONObject current = data.getObj(name);
+			if (current.getBoolOrDefault("kombinierbar", false) || !current.getBoolOrDefault("Generierung", true)) {
+				continue;
+			}
+			final RKP rkp = new RKP(type, name, current, parent);
+			final int size = result.size();
+			collectChoices(type, current.getObjOrDefault("Varianten", null), rkp, result, truncated);
+			if (result.size() == size) {
+				final List<RKP> variants = rkp.getVariants();
+				if (variants.size() > MAX_VARIANTS) {
+					truncated.add(rkp);
+				}
+				result.add(new Tuple<>(rkp, subsets(variants)));
+			}
+		}
+	}
+
+	private static int cost(final RKP choice, final List<RKP> variants) {
+		int result = choice.getCost(0);
+		for (final RKP variant : variants) {
+			result += variant.getCost(0);
+		}
+		return result;
+	}
+
+	private static String gender(final RKP choice, final List<RKP> variants) {
+		String requirement = null;
+		for (final RKP variant : variants) {
+			if (variant.genderRequirement != null) {
+				requirement = variant.genderRequirement;
+				break;
+			}
+		}
+		if (requirement == null) {
+			requirement = choice.genderRequirement;
+		}
+		if (requirement == null) return null;
+		return MALE.equals(requirement) ? MALE : FEMALE;
+	}
+
+	private static void subsets(final List<RKP> variants, final int start, final int size, final List<RKP> current, final List<List<RKP>> result) {
+		if (result.size() >= MAX_VARIANT_SUBSETS) return;
+		if (current.size() == size) {
+			result.add(Collections.unmodifiableList(new ArrayList<>(current)));
+			return;
+		}
+		for (int i = start; i <= variants.size() - (size - current.size()); ++i) {
+			current.add(variants.get(i));
+			subsets(variants, i + 1, size, current, result);
+			current.removeLast();
+		}
+	}
+
+	private static List<List<RKP>> subsets(final List<RKP> variants) {
+		final List<List<RKP>> result = new ArrayList<>();
+		for (int size = 0; size <= variants.size() && result.size() < MAX_VARIANT_SUBSETS; ++size) {
+			subsets(variants, 0, size, new ArrayList<>(size), result);
+		}
+		return result;
+	}
+
+	private final CompatibilityIndex index;
+
+	private final List<Tuple<RKP, List<List<RKP>>>> races = new ArrayList<>();
+	private final List<Tuple<RKP, List<List<RKP>>>> cultures = new ArrayList<>();
+	private final List<Tuple<RKP, List<List<RKP>>>> professions = new ArrayList<>();
+	private final List<RKP> truncated = new ArrayList<>();
+
+	public CombinationExplorer() {
+		this(CompatibilityIndex.getInstance(), ResourceManager.getResource("data/Rassen"), ResourceManager.getResource("data/Kulturen"),
+				ResourceManager.getResource("data/Professionen"));
+	}
+
+	CombinationExplorer(final CompatibilityIndex index, final JSONObject races, final JSONObject cultures, final JSONObject professions) {
+		this.index = index;
+		collectChoices(RKP.Type.Race, races, null, this.races, truncated);
+		collectChoices(RKP.Type.Culture, cultures, null, this.cultures, truncated);
+		collectChoices(RKP.Type.Profession, professions, null, this.professions, truncated);
+	}
+
+	public long count() {
+		final LongAdder count = new LongAdder();
+		explore(_ -> count.increment());
+		return count.sum();
+	}
+
+	public void explore(final Consumer<Combination> consumer) {
+		final List<RecursiveAction> tasks = new ArrayList<>(races.size());
+		for (final Tuple<RKP, List<List<RKP>>> race : races) {
+			tasks.add(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					explore(race, consumer);
+				}
+			});
+		}
+		ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(tasks);
+			}
+		});
+	}
+
+	private void explore(final Tuple<RKP, List<List<RKP>>> race, final Consumer<Combination> consumer) {
+		for (final List<RKP> raceVariants : race._2) {
+			final String raceGender = gender(race._1, raceVariants);
+			final int raceCost = cost(race._1, raceVariants);
+			final Tuple<BitSet, BitSet> fromRace = index.getCulturesFromRace(race._1, raceVariants);
+
+			for (final Tuple<RKP, List<List<RKP>>> culture : cultures) {
+				if (!index.isPossibleCulture(fromRace, culture._1)) {
+					continue;
+				}
+				for (final List<RKP> cultureVariants : culture._2) {
+					final String cultureGender = gender(culture._1, cultureVariants);
+					if (raceGender != null && cultureGender != null && !raceGender.equals(cultureGender)) {
+						continue;
+					}
+					final String rcGender = raceGender != null ? raceGender : cultureGender;
+					final int rcCost = raceCost + cost(culture._1, cultureVariants);
+
+					for (final Tuple<RKP, List<List<RKP>>> profession : professions) {
+						if (!index.isPossibleRace(race._1, null, profession._1, null)
+								|| !index.isPossibleProfession(race._1, culture._1, cultureVariants, profession._1)) {
+							continue;
+						}
+						for (final List<RKP> professionVariants : profession._2) {
+							final String professionGender = gender(profession._1, professionVariants);
+							if (rcGender != null && professionGender != null && !rcGender.equals(professionGender)) {
+								continue;
+							}
+							consumer.accept(new Combination(race._1, raceVariants, culture._1, cultureVariants, profession._1, professionVariants,
+									rcCost + cost(profession._1, professionVariants), rcGender != null ? rcGender : professionGender));
+						}
+					}
+				}
+			}
+		}
+	}
+
+	public List<RKP> findDeadEntries() {
+		final Set<JSONObject> used = Collections.newSetFromMap(Collections.synchronizedMap(new IdentityHashMap<>()));
+		explore(combination -> {
+			used.add(combination.race.data);
+			used.add(combination.culture.data);
+			used.add(combination.profession.data);
+		});
+
+		final List<RKP> result = new ArrayList<>();
+		for (final List<Tuple<RKP, List<List<RKP>>>> choices : List.of(races, cultures, professions)) {
+			for (final Tuple<RKP, List<List<RKP>>> choice : choices) {
+				if (!used.contains(choice._1.data)) {
+					result.add(choice._1);
+				}
+			}
+		}
+		return result;
+	}
+
+	public List<RKP> getTruncatedChoices() {
+		return Collections.unmodifiableList(truncated);
+	}
+
+	public boolean isTruncated() {
+		return !truncated.isEmpty();
+	}
+}
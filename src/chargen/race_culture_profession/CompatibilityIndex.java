@@ -0,0 +1,348 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.race_culture_profession;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import chargen.util.ChargenUtil;
+import dsatool.resources.ResourceManager;
+import dsatool.util.Tuple;
+import jsonant.value.JSONArray;
+import jsonant.value.JSONObject;
+
+class CompatibilityIndex {
+	static class Node {
+		final int id;
+		final Node parent;
+		final Node[] ancestors;
+		final BitSet chain;
+		final List<Node> children = new ArrayList<>();
+
+		BitSet suggestedCultures;
+		BitSet possibleCultures;
+		BitSet effectiveSuggestedCultures;
+		BitSet effectivePossibleCultures;
+		BitSet effectiveCultures;
+
+		BitSet professions;
+		BitSet effectiveProfessions;
+
+		BitSet requiredRaces;
+		BitSet requiredCultures;
+		BitSet firstRequiredRaces;
+
+		private Node(final int id, final Node parent) {
+			this.id = id;
+			this.parent = parent;
+			if (parent != null) {
+				ancestors = new Node[parent.ancestors.length + 1];
+				System.arraycopy(parent.ancestors, 0, ancestors, 1, parent.ancestors.length);
+				chain = (BitSet) parent.chain.clone();
+			} else {
+				ancestors = new Node[1];
+				chain = new BitSet();
+			}
+			ancestors[0] = this;
+			chain.set(id);
+		}
+	}
+
+	private static CompatibilityIndex instance;
+
+	static synchronized CompatibilityIndex getInstance() {
+		final JSONObject races = ResourceManager.getResource("data/Rassen");
+		final JSONObject cultures = ResourceManager.getResource("data/Kulturen");
+		final JSONObject professions = ResourceManager.getResource("data/Professionen");
+		if (instance == null || instance.races != races || instance.cultures != cultures || instance.professions != professions) {
+			instance = new CompatibilityIndex(races, cultures, professions);
+			ChargenUtil.clearCollationKeys();
+		}
+		return instance;
+	}
+
+	private static BitSet union(final BitSet first, final BitSet second) {
+		if (first == null) return second;
+		if (second == null) return first;
+		final BitSet result = (BitSet) first.clone();
+		result.or(second);
+		return result;
+	}
+
+	private final JSONObject races;
+	private final JSONObject cultures;
+	private final JSONObject professions;
+
+	private final Map<RKP.Type, Map<String, Integer>> ids = new EnumMap<>(RKP.Type.class);
+	private final Map<JSONObject, Node> nodes = new IdentityHashMap<>();
+	private final Map<String, Node> paths = new HashMap<>();
+
+	CompatibilityIndex(final JSONObject races, final JSONObject cultures, final JSONObject professions) {
+		this.races = races;
+		this.cultures = cultures;
+		this.professions = professions;
+
+		for (final RKP.Type type : RKP.Type.values()) {
+			ids.put(type, new HashMap<>());
+		}
+
+		addAll(RKP.Type.Race, races);
+		addAll(RKP.Type.Culture, cultures);
+		addAll(RKP.Type.Profession, professions);
+	}
+
+	private static String path(final RKP rkp) {
+		return (rkp.parent != null ? path(rkp.parent) : rkp.type.name()) + '\0' + rkp.name;
+	}
+
+	private Node add(final RKP.Type type, final String name, final String path, final JSONObject data, final Node parent, final boolean byData) {
+		final Node node = createNode(type, name, data, parent);
+		if (byData) {
+			nodes.put(data, node);
+		}
+		paths.put(path, node);
+		final JSONObject variants = data.getObjOrDefault("Varianten", null);
+		if (variants != null) {
+			for (final String variantName : variants.keySet()) {
+				final JSONObject variant = variants.getObj(variantName);
+				final Node child = add(type, variantName, path + '\0' + variantName, variant, node, byData);
+				if (RKPSelector.isChild(variant)) {
+					node.children.add(child);
+				}
+			}
+		}
+		return node;
+	}
+
+	private void addAll(final RKP.Type type, final JSONObject data) {
+		if (data == null) return;
+		for (final String name : data.keySet()) {
+			add(type, name, type.name() + '\0' + name, data.getObj(name), null, true);
+		}
+	}
+
+	private Tuple<Boolean, Boolean> below(final Node node, final Predicate<Node> suggested, final Predicate<Node> possible) {
+		boolean someValid = false;
+		boolean allSuggested = true;
+		for (final Node child : node.children) {
+			if (suggested.test(child)) {
+				someValid = true;
+			} else if (possible.test(child)) {
+				someValid = true;
+				allSuggested = false;
+			} else if (child.children.isEmpty()) {
+				allSuggested = false;
+			} else {
+				final Tuple<Boolean, Boolean> result = below(child, suggested, possible);
+				someValid |= result._1;
+				allSuggested &= result._2;
+			}
+			if (someValid && !allSuggested) {
+				break;
+			}
+		}
+		return new Tuple<>(someValid, allSuggested);
+	}
+
+	private Node createNode(final RKP.Type type, final String name, final JSONObject data, final Node parent) {
+		final Node node = new Node(id(type, name), parent);
+		switch (type) {
+			case Race -> {
+				node.suggestedCultures = ids(RKP.Type.Culture, data.getArrOrDefault("Übliche Kulturen", null));
+				node.possibleCultures = ids(RKP.Type.Culture, data.getArrOrDefault("Mögliche Kulturen", null));
+				node.effectiveSuggestedCultures = node.suggestedCultures != null || parent == null ? node.suggestedCultures
+						: parent.effectiveSuggestedCultures;
+				node.effectivePossibleCultures = node.possibleCultures != null || parent == null ? node.possibleCultures : parent.effectivePossibleCultures;
+				node.effectiveCultures = union(node.effectiveSuggestedCultures, node.effectivePossibleCultures);
+			}
+			case Culture -> {
+				node.professions = ids(RKP.Type.Profession, data.getArrOrDefault("Professionen", null));
+				node.effectiveProfessions = node.professions != null || parent == null ? node.professions : parent.effectiveProfessions;
+			}
+			case Profession -> {
+				final JSONObject requirements = data.getObjOrDefault("Voraussetzungen", null);
+				if (requirements != null) {
+					node.requiredRaces = required(RKP.Type.Race, requirements.getObjOrDefault("Rassen", null));
+					node.requiredCultures = required(RKP.Type.Culture, requirements.getObjOrDefault("Kulturen", null));
+				}
+				node.firstRequiredRaces = node.requiredRaces != null || parent == null ? node.requiredRaces : parent.firstRequiredRaces;
+			}
+		}
+		return node;
+	}
+
+	Tuple<Boolean, Boolean> getBelow(final RKP rkp, final Predicate<Node> suggested, final Predicate<Node> possible) {
+		return below(node(rkp), suggested, possible);
+	}
+
+	Tuple<BitSet, BitSet> getCulturesFromRace(final RKP race, final List<RKP> raceVariants) {
+		final Tuple<BitSet, BitSet> fromRace = new Tuple<>(null, null);
+		if (race != null) {
+			final Node raceNode = node(race);
+			fromRace._1 = raceNode.effectiveSuggestedCultures;
+			fromRace._2 = raceNode.effectivePossibleCultures;
+		}
+		if (raceVariants != null) {
+			for (final RKP variant : raceVariants) {
+				final Node variantNode = node(variant);
+				if (variantNode.suggestedCultures != null) {
+					fromRace._1 = variantNode.suggestedCultures;
+				}
+				if (variantNode.possibleCultures != null) {
+					fromRace._2 = variantNode.possibleCultures;
+				}
+			}
+		}
+		return fromRace;
+	}
+
+	private int id(final RKP.Type type, final String name) {
+		final Map<String, Integer> typeIds = ids.get(type);
+		return typeIds.computeIfAbsent(name, _ -> typeIds.size());
+	}
+
+	private BitSet ids(final RKP.Type type, final JSONArray names) {
+		if (names == null) return null;
+		final BitSet result = new BitSet();
+		for (int i = 0; i < names.size(); ++i) {
+			result.set(id(type, names.getString(i)));
+		}
+		return result;
+	}
+
+	boolean isPossibleCulture(final Tuple<BitSet, BitSet> fromRace, final RKP culture) {
+		return isPossibleCulture(fromRace, node(culture));
+	}
+
+	boolean isPossibleCulture(final Tuple<BitSet, BitSet> fromRace, final Node culture) {
+		if (fromRace._2 == null) return true;
+		final BitSet chain = culture.chain;
+		return fromRace._2.intersects(chain) || fromRace._1 != null && fromRace._1.intersects(chain);
+	}
+
+	boolean isPossibleProfession(final RKP race, final RKP culture, final List<RKP> cultureVariants, final RKP profession) {
+		if (profession == null) return true;
+		return isPossibleProfession(race != null ? node(race) : null, culture != null ? node(culture) : null, cultureVariants, node(profession));
+	}
+
+	boolean isPossibleProfession(final Node raceNode, final Node cultureNode, final List<RKP> cultureVariants, final Node professionNode) {
+		if (professionNode == null) return true;
+
+		if (raceNode != null) {
+			final BitSet raceChain = raceNode.chain;
+			for (final Node current : professionNode.ancestors) {
+				if (current.requiredRaces != null && !current.requiredRaces.intersects(raceChain)) return false;
+			}
+		}
+
+		if (cultureNode != null) {
+			BitSet possible = cultureNode.effectiveProfessions;
+			if (cultureVariants != null) {
+				for (final RKP variant : cultureVariants) {
+					final BitSet variantProfessions = node(variant).professions;
+					if (variantProfessions != null) {
+						possible = variantProfessions;
+					}
+				}
+			}
+
+			for (final Node current : professionNode.ancestors) {
+				if (current.requiredCultures != null && !current.requiredCultures.intersects(cultureNode.chain)) return false;
+				if (possible != null && possible.get(current.id)) return true;
+			}
+			return possible == null;
+		}
+
+		return true;
+	}
+
+	boolean isPossibleRace(final RKP race, final RKP culture, final RKP profession, final RKP secondProfession) {
+		if (race == null) return true;
+		return isPossibleRace(node(race), culture, profession, secondProfession);
+	}
+
+	boolean isPossibleRace(final Node raceNode, final RKP culture, final RKP profession, final RKP secondProfession) {
+		if (profession != null) {
+			final BitSet requiredRaces = node(profession).firstRequiredRaces;
+			if (requiredRaces != null && !requiredRaces.get(raceNode.id)) return false;
+		}
+
+		if (secondProfession != null) {
+			final BitSet requiredRaces = node(secondProfession).firstRequiredRaces;
+			if (requiredRaces != null && !requiredRaces.get(raceNode.id)) return false;
+		}
+
+		if (culture != null) {
+			final BitSet possibleCultures = raceNode.effectiveCultures;
+			if (possibleCultures == null || !possibleCultures.intersects(node(culture).chain)) return false;
+		}
+
+		return true;
+	}
+
+	boolean isSuggestedCulture(final Tuple<BitSet, BitSet> fromRace, final RKP culture) {
+		return isSuggestedCulture(fromRace, node(culture));
+	}
+
+	boolean isSuggestedCulture(final Tuple<BitSet, BitSet> fromRace, final Node culture) {
+		return fromRace._1 != null && fromRace._1.intersects(culture.chain);
+	}
+
+	boolean isSuggestedRace(final RKP race, final RKP culture) {
+		if (race == null) return false;
+		return isSuggestedRace(node(race), culture);
+	}
+
+	boolean isSuggestedRace(final Node raceNode, final RKP culture) {
+		if (culture == null) return false;
+
+		BitSet suggested = raceNode.suggestedCultures;
+		if (suggested == null && raceNode.parent != null) {
+			suggested = raceNode.parent.suggestedCultures;
+		}
+		return suggested != null && suggested.intersects(node(culture).chain);
+	}
+
+	Node node(final RKP rkp) {
+		final Node node = nodes.get(rkp.data);
+		if (node != null) return node;
+		final String path = path(rkp);
+		synchronized (paths) {
+			Node additional = paths.get(path);
+			if (additional == null) {
+				additional = add(rkp.type, rkp.name, path, rkp.data, rkp.parent != null ? node(rkp.parent) : null, false);
+			}
+			return additional;
+		}
+	}
+
+	private BitSet required(final RKP.Type type, final JSONObject requirements) {
+		if (requirements == null) return null;
+		final JSONObject names = requirements.getObjOrDefault("Muss", requirements.getObjOrDefault("Wahl", null));
+		if (names == null) return null;
+		final BitSet result = new BitSet();
+		for (final String name : names.keySet()) {
+			result.set(id(type, name));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,660 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.race_culture_profession;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import chargen.util.TalentCatalog;
+import dsatool.util.Tuple;
+import jsonant.value.JSONArray;
+import jsonant.value.JSONObject;
+
+class HeroLayers {
+	private static class SpellValue {
+		private final TalentCatalog.Entry entry;
+		private final String representation;
+		private final boolean primary;
+		private final int value;
+		private final int[] values;
+
+		private SpellValue(final TalentCatalog.Entry entry, final String representation, final boolean primary, final int value, final int[] values) {
+			this.entry = entry;
+			this.representation = representation;
+			this.primary = primary;
+			this.value = value;
+			this.values = values;
+		}
+	}
+
+	private static class Layer {
+		private final String type;
+		private final JSONObject source;
+		private final Map<String, Integer> basicValues = new LinkedHashMap<>();
+		private final List<TalentCatalog.Entry> talents = new ArrayList<>();
+		private int[] talentValues = new int[0];
+		private final List<TalentCatalog.Entry> selectableTalents = new ArrayList<>();
+		private final List<int[]> selectableValues = new ArrayList<>();
+		private final List<TalentCatalog.Entry> primaryTalents = new ArrayList<>();
+		private final List<Tuple<String, String>> languages = new ArrayList<>();
+		private final List<SpellValue> spells = new ArrayList<>();
+		private final JSONObject equipment;
+
+		private Layer(final String type, final JSONObject source, final TalentCatalog catalog) {
+			this.type = type;
+			this.source = source;
+
+			final JSONObject currentValues = source.getObjOrDefault("Basiswerte", null);
+			if (currentValues != null) {
+				for (final String valueName : currentValues.keySet()) {
+					if (!"Wahl".equals(valueName)) {
+						basicValues.put(valueName, currentValues.getInt(valueName));
+					}
+				}
+			}
+
+			final JSONObject currentTalents = source.getObjOrDefault("Talente", null);
+			final JSONArray primary = source.getArrOrDefault("Leittalente", null);
+			if (currentTalents != null) {
+				talentValues = new int[currentTalents.size()];
+				for (final String talentName : currentTalents.keySet()) {
+					if ("Wahl".equals(talentName) || "Muttersprache".equals(talentName) || "Muttersprache:Schrift".equals(talentName)) {
+						continue;
+					}
+					final TalentCatalog.Entry entry = catalog.get(talentName);
+					if (entry.group == null) {
+						continue;
+					}
+					if (entry.isSelectable()) {
+						final JSONArray values = currentTalents.getArr(talentName);
+						final int[] modifications = new int[values.size()];
+						for (int i = 0; i < modifications.length; ++i) {
+							modifications[i] = values.getInt(i);
+						}
+						selectableTalents.add(entry);
+						selectableValues.add(modifications);
+					} else {
+						talentValues[talents.size()] = currentTalents.getInt(talentName);
+						talents.add(entry);
+						if (primary != null && primary.contains(talentName)) {
+							primaryTalents.add(entry);
+						}
+					}
+				}
+			}
+
+			final JSONObject actualLanguages = source.getObjOrDefault("Sprachen", null);
+			if (actualLanguages != null) {
+				for (final String type : new String[] { "Muttersprache", "Zweitsprache", "Lehrsprache" }) {
+					final JSONArray choices = actualLanguages.getArrOrDefault(type, null);
+					if (choices != null) {
+						for (int i = 0; i < choices.size(); ++i) {
+							final JSONArray choice = choices.getArr(i);
+							if (choice != null && choice.size() == 1) {
+								languages.add(new Tuple<>(choice.getString(0), type));
+							}
+						}
+					}
+				}
+			}
+
+			for (final String section : new String[] { "Hauszauber", "Zauber" }) {
+				final JSONObject currentSpells = source.getObjOrDefault(section, null);
+				if (currentSpells == null) {
+					continue;
+				}
+				final boolean primarySpells = "Hauszauber".equals(section);
+				for (final String spellName : currentSpells.keySet()) {
+					if ("Wahl".equals(spellName)) {
+						continue;
+					}
+					final TalentCatalog.Entry entry = catalog.get(spellName);
+					final JSONObject spell = currentSpells.getObj(spellName);
+					for (final String representation : spell.keySet()) {
+						if (entry.isSelectable()) {
+							final JSONArray values = spell.getArr(representation);
+							final int[] modifications = new int[values.size()];
+							for (int i = 0; i < modifications.length; ++i) {
+								modifications[i] = values.getInt(i);
+							}
+							spells.add(new SpellValue(entry, representation, primarySpells, 0, modifications));
+						} else {
+							spells.add(new SpellValue(entry, representation, primarySpells, spell.getInt(representation), null));
+						}
+					}
+				}
+			}
+
+			equipment = source.getObjOrDefault("Ausrüstung", null);
+		}
+	}
+
+	private static final String[] types = { "Rasse", "Kultur", "Profession" };
+
+	static final String[] proConTypes = { "Rasse", "Kultur", "Profession", "Breitgefächerte Bildung", "Veteran" };
+
+	private static void add(final Map<String, int[]> totals, final Map<String, Integer> values, final int sign) {
+		for (final Map.Entry<String, Integer> value : values.entrySet()) {
+			final int[] total = totals.computeIfAbsent(value.getKey(), _ -> new int[2]);
+			total[0] += sign * value.getValue();
+			total[1] += sign;
+			if (total[1] == 0) {
+				totals.remove(value.getKey());
+			}
+		}
+	}
+
+	private static boolean hasLanguage(final Layer layer, final Tuple<String, String> language) {
+		for (final Tuple<String, String> current : layer.languages) {
+			if (current._1.equals(language._1) && current._2.equals(language._2)) return true;
+		}
+		return false;
+	}
+
+	private static void writeTaW(final JSONObject talent, final TalentCatalog.Entry entry, final int value) {
+		talent.put("TaW", value);
+		if ("Nahkampftalente".equals(entry.group) || "Fernkampftalente".equals(entry.group)) {
+			if (entry.talent.getBoolOrDefault("NurAT", false) || entry.talent.getBoolOrDefault("FK", false)) {
+				talent.put("AT", value);
+			} else {
+				talent.put("AT", (value + 1) / 2);
+				talent.put("PA", value / 2);
+			}
+		}
+	}
+
+	private static void add(final ModificationAccumulator totals, final Layer layer, final int sign) {
+		for (int i = 0; i < layer.talents.size(); ++i) {
+			final TalentCatalog.Entry entry = layer.talents.get(i);
+			totals.add(totals.slot(entry.id, entry), sign * layer.talentValues[i], sign);
+		}
+	}
+
+	private static void addSpells(final ModificationAccumulator totals, final Layer layer, final int sign) {
+		for (final SpellValue spell : layer.spells) {
+			if (spell.values != null) {
+				continue;
+			}
+			final long key = spellKey(totals, spell);
+			totals.add(totals.slot(key, spell.entry), sign * spell.value, sign);
+			if (spell.primary) {
+				totals.add(totals.slot(key | 1, spell.entry), 0, sign);
+			}
+		}
+	}
+
+	private static void removeTagged(final JSONArray values, final String tag, final String type) {
+		for (int i = values.size() - 1; i >= 0; --i) {
+			if (values.getUnsafe(i) instanceof final JSONObject value && type.equals(value.getStringOrDefault(tag, null))) {
+				values.removeAt(i);
+			}
+		}
+	}
+
+	private static long spellKey(final ModificationAccumulator totals, final SpellValue spell) {
+		return (long) spell.entry.id << 32 | totals.representation(spell.representation) << 1;
+	}
+
+	private static void writeEquipment(final JSONArray inventory, final JSONObject items, final Layer layer) {
+		if (layer.equipment == null) return;
+		for (final String name : layer.equipment.keySet()) {
+			if ("Wahl".equals(name)) {
+				continue;
+			}
+			final JSONObject currentItem = layer.equipment.getObj(name);
+			JSONObject item;
+			if (items.containsKey(name)) {
+				item = items.getObj(name).clone(inventory);
+				item.addAll(currentItem, true);
+			} else {
+				item = currentItem.clone(inventory);
+			}
+			if (!item.containsKey("Name")) {
+				item.put("Name", name);
+			}
+
+			if (item.containsKey("Bannschwert") && item.getObj("Bannschwert").getObj("Rituale").containsKey("Bannschwert")) {
+				item.removeKey("Bruchfaktor");
+				if (item.containsKey("Nahkampfwaffe")) {
+					item.getObj("Nahkampfwaffe").removeKey("Bruchfaktor");
+				}
+			}
+
+			item.put("temporary:RKPItem", layer.type);
+			inventory.add(item);
+		}
+	}
+
+	private static void writeSelectableSpells(final JSONObject spells, final Layer layer) {
+		for (final SpellValue spell : layer.spells) {
+			if (spell.values == null) {
+				continue;
+			}
+			final JSONArray representation = spells.getObj(spell.entry.name).getArr(spell.representation);
+			for (final int value : spell.values) {
+				final JSONObject current = new JSONObject(representation);
+				current.put("ZfW", value);
+				if (spell.primary) {
+					current.put("Hauszauber", true);
+				}
+				current.put("temporary:RKPSpell", layer.type);
+				representation.add(current);
+			}
+		}
+	}
+
+	private final Layer[] layers = new Layer[types.length];
+	private final Map<String, int[]> basicValues = new LinkedHashMap<>();
+	private final ModificationAccumulator talents = new ModificationAccumulator();
+	private final ModificationAccumulator spells = new ModificationAccumulator();
+	private TalentCatalog catalog;
+
+	private final JSONObject[] proConSources = new JSONObject[proConTypes.length];
+	private final List<List<Runnable>> proConUndo = new ArrayList<>(proConTypes.length);
+
+	private final Layer[] writtenLayers = new Layer[types.length];
+	private final Map<String, Integer> writtenBasicValues = new HashMap<>();
+	private JSONObject writtenHero;
+	private JSONObject writtenBasicValuesSection;
+	private JSONObject writtenTalentsSection;
+	private JSONObject writtenSpellsSection;
+	private JSONObject writtenPossessionsSection;
+
+	HeroLayers() {
+		for (int i = 0; i < proConTypes.length; ++i) {
+			proConUndo.add(new ArrayList<>());
+		}
+	}
+
+	void clear() {
+		for (int i = 0; i < layers.length; ++i) {
+			layers[i] = null;
+		}
+		basicValues.clear();
+		talents.clear();
+		spells.clear();
+		clearProsAndCons();
+		writtenHero = null;
+	}
+
+	void clearProsAndCons() {
+		for (int i = 0; i < proConTypes.length; ++i) {
+			proConSources[i] = null;
+			proConUndo.get(i).clear();
+		}
+	}
+
+	int firstChangedProsAndCons(final JSONObject generationState) {
+		for (int i = 0; i < proConTypes.length; ++i) {
+			if (proConSources[i] != generationState.getObjOrDefault(proConTypes[i], null)) {
+				return i;
+			}
+		}
+		return proConTypes.length;
+	}
+
+	Map<String, Integer> getBasicValues() {
+		final Map<String, Integer> result = new LinkedHashMap<>();
+		for (final Map.Entry<String, int[]> entry : basicValues.entrySet()) {
+			result.put(entry.getKey(), entry.getValue()[0]);
+		}
+		return result;
+	}
+
+	List<Runnable> getProConUndo(final int type) {
+		return proConUndo.get(type);
+	}
+
+	void invalidate(final String type) {
+		for (int i = 0; i < types.length; ++i) {
+			if (types[i].equals(type) && layers[i] != null) {
+				add(basicValues, layers[i].basicValues, -1);
+				add(talents, layers[i], -1);
+				addSpells(spells, layers[i], -1);
+				layers[i] = null;
+			}
+		}
+		for (int i = 0; i < proConTypes.length; ++i) {
+			if (proConTypes[i].equals(type)) {
+				proConSources[i] = null;
+			}
+		}
+	}
+
+	boolean isWritten(final JSONObject hero) {
+		return writtenHero == hero && writtenBasicValuesSection == hero.getObj("Basiswerte") && writtenTalentsSection == hero.getObj("Talente")
+				&& writtenSpellsSection == hero.getObjOrDefault("Zauber", null) && writtenPossessionsSection == hero.getObjOrDefault("Besitz", null);
+	}
+
+	void undoProsAndCons(final int from) {
+		for (int i = proConTypes.length - 1; i >= from; --i) {
+			final List<Runnable> undo = proConUndo.get(i);
+			for (int j = undo.size() - 1; j >= 0; --j) {
+				undo.get(j).run();
+			}
+			undo.clear();
+		}
+	}
+
+	int update(final JSONObject generationState) {
+		if (catalog != TalentCatalog.getInstance()) {
+			clear();
+			catalog = TalentCatalog.getInstance();
+		}
+		int updated = 0;
+		for (int i = 0; i < types.length; ++i) {
+			final JSONObject source = generationState.getObjOrDefault(types[i], null);
+			final Layer old = layers[i];
+			if (old != null && old.source == source) {
+				continue;
+			}
+			if (old != null) {
+				add(basicValues, old.basicValues, -1);
+				add(talents, old, -1);
+				addSpells(spells, old, -1);
+			}
+			layers[i] = source != null ? new Layer(types[i], source, catalog) : null;
+			if (layers[i] != null) {
+				add(basicValues, layers[i].basicValues, 1);
+				add(talents, layers[i], 1);
+				addSpells(spells, layers[i], 1);
+			}
+			++updated;
+		}
+		return updated;
+	}
+
+	void updateBasicValues(final JSONObject basicValues, final Map<String, Integer> values) {
+		final Set<String> names = new LinkedHashSet<>(writtenBasicValues.keySet());
+		names.addAll(values.keySet());
+		for (final String name : names) {
+			final Integer value = values.get(name);
+			final Integer written = writtenBasicValues.get(name);
+			if (Objects.equals(value, written)) {
+				continue;
+			}
+			final JSONObject basicValue = basicValues.getObj(name);
+			final String key = RKPSelectors.basicValueKey(name);
+			final int result = basicValue.getIntOrDefault(key, 0) + (value != null ? value : 0) - (written != null ? written : 0);
+			if (value == null && result == 0) {
+				basicValue.removeKey(key);
+				if (basicValue.size() == 0) {
+					basicValues.removeKey(name);
+				}
+			} else {
+				basicValue.put(key, result);
+			}
+		}
+		writtenBasicValues.clear();
+		writtenBasicValues.putAll(values);
+	}
+
+	void updateEquipment(final JSONArray inventory, final JSONObject items) {
+		for (int i = 0; i < types.length; ++i) {
+			final Layer old = writtenLayers[i];
+			if (old != null && old != layers[i]) {
+				removeTagged(inventory, "temporary:RKPItem", old.type);
+			}
+		}
+		for (int i = 0; i < types.length; ++i) {
+			final Layer layer = layers[i];
+			if (layer != null && layer != writtenLayers[i]) {
+				writeEquipment(inventory, items, layer);
+			}
+		}
+	}
+
+	void updateSpells(final JSONObject actualSpells) {
+		final Map<Long, SpellValue> touched = new LinkedHashMap<>();
+
+		for (int i = 0; i < types.length; ++i) {
+			final Layer old = writtenLayers[i];
+			if (old == null || old == layers[i]) {
+				continue;
+			}
+			for (final SpellValue spell : old.spells) {
+				final JSONObject actualSpell = actualSpells.getObjOrDefault(spell.entry.name, null);
+				if (actualSpell == null) {
+					continue;
+				}
+				if (spell.values != null) {
+					final JSONArray representation = actualSpell.getArrOrDefault(spell.representation, null);
+					if (representation != null) {
+						removeTagged(representation, "temporary:RKPSpell", old.type);
+						if (representation.size() == 0) {
+							actualSpell.removeKey(spell.representation);
+						}
+					}
+					if (actualSpell.size() == 0) {
+						actualSpells.removeKey(spell.entry.name);
+					}
+				} else {
+					final JSONObject representation = actualSpell.getObj(spell.representation);
+					representation.put("ZfW", representation.getIntOrDefault("ZfW", 0) - spell.value);
+					touched.put(spellKey(spells, spell), spell);
+				}
+			}
+		}
+
+		for (int i = 0; i < types.length; ++i) {
+			final Layer layer = layers[i];
+			if (layer == null || layer == writtenLayers[i]) {
+				continue;
+			}
+			for (final SpellValue spell : layer.spells) {
+				if (spell.values == null) {
+					final JSONObject representation = actualSpells.getObj(spell.entry.name).getObj(spell.representation);
+					representation.put("ZfW", representation.getIntOrDefault("ZfW", 0) + spell.value);
+					touched.put(spellKey(spells, spell), spell);
+				}
+			}
+			writeSelectableSpells(actualSpells, layer);
+		}
+
+		for (final Map.Entry<Long, SpellValue> entry : touched.entrySet()) {
+			final SpellValue spell = entry.getValue();
+			final JSONObject actualSpell = actualSpells.getObj(spell.entry.name);
+			final JSONObject representation = actualSpell.getObj(spell.representation);
+			final int slot = spells.find(entry.getKey());
+			final int primarySlot = spells.find(entry.getKey() | 1);
+			if ((slot < 0 || spells.count(slot) == 0) && representation.getIntOrDefault("ZfW", 0) == 0) {
+				actualSpell.removeKey(spell.representation);
+				if (actualSpell.size() == 0) {
+					actualSpells.removeKey(spell.entry.name);
+				}
+			} else if (primarySlot >= 0 && spells.count(primarySlot) > 0) {
+				if (!representation.containsKey("Hauszauber")) {
+					representation.put("Hauszauber", true);
+					representation.put("temporary:RKPPrimarySpell", true);
+				}
+			} else if (representation.getBoolOrDefault("temporary:RKPPrimarySpell", false)) {
+				representation.removeKey("Hauszauber");
+				representation.removeKey("temporary:RKPPrimarySpell");
+			}
+		}
+	}
+
+	void updateTalents(final JSONObject actualTalents) {
+		final Set<TalentCatalog.Entry> touched = new LinkedHashSet<>();
+		final JSONObject languages = actualTalents.getObj("Sprachen und Schriften");
+
+		for (int i = 0; i < types.length; ++i) {
+			final Layer old = writtenLayers[i];
+			if (old == null || old == layers[i]) {
+				continue;
+			}
+			for (int j = 0; j < old.talents.size(); ++j) {
+				final TalentCatalog.Entry entry = old.talents.get(j);
+				final JSONObject talent = actualTalents.getObj(entry.group).getObj(entry.name);
+				talent.put("TaW", talent.getIntOrDefault("TaW", 0) - old.talentValues[j]);
+				touched.add(entry);
+			}
+			for (final TalentCatalog.Entry entry : old.selectableTalents) {
+				final JSONArray talent = actualTalents.getObj(entry.group).getArrOrDefault(entry.name, null);
+				if (talent == null) {
+					continue;
+				}
+				removeTagged(talent, "temporary:RKPTalent", old.type);
+				if (talent.size() == 0) {
+					actualTalents.getObj(entry.group).removeKey(entry.name);
+				}
+			}
+			for (final TalentCatalog.Entry entry : old.primaryTalents) {
+				boolean stillPrimary = false;
+				for (final Layer layer : layers) {
+					stillPrimary |= layer != null && layer.primaryTalents.contains(entry);
+				}
+				final JSONObject talent = actualTalents.getObj(entry.group).getObjOrDefault(entry.name, null);
+				if (!stillPrimary && talent != null && talent.getBoolOrDefault("temporary:RKPPrimaryTalent", false)) {
+					talent.removeKey("Leittalent");
+					talent.removeKey("temporary:RKPPrimaryTalent");
+				}
+			}
+			for (final Tuple<String, String> language : old.languages) {
+				boolean stillSet = false;
+				for (final Layer layer : layers) {
+					stillSet |= layer != null && hasLanguage(layer, language);
+				}
+				if (!stillSet && languages.containsKey(language._1)) {
+					languages.getObj(language._1).removeKey(language._2);
+				}
+			}
+		}
+
+		for (int i = 0; i < types.length; ++i) {
+			final Layer layer = layers[i];
+			if (layer == null || layer == writtenLayers[i]) {
+				continue;
+			}
+			for (int j = 0; j < layer.talents.size(); ++j) {
+				final TalentCatalog.Entry entry = layer.talents.get(j);
+				final JSONObject talent = actualTalents.getObj(entry.group).getObj(entry.name);
+				talent.put("TaW", talent.getIntOrDefault("TaW", 0) + layer.talentValues[j]);
+				touched.add(entry);
+			}
+			writeLayer(actualTalents, layer);
+		}
+
+		for (final TalentCatalog.Entry entry : touched) {
+			final JSONObject group = actualTalents.getObj(entry.group);
+			final int slot = talents.slot(entry.id, entry);
+			if (talents.count(slot) == 0 && !entry.isBasis && group.getObj(entry.name).getIntOrDefault("TaW", 0) == 0) {
+				group.removeKey(entry.name);
+			} else {
+				writeTaW(group.getObj(entry.name), entry, group.getObj(entry.name).getIntOrDefault("TaW", 0));
+			}
+		}
+	}
+
+	void writeBasicValues(final JSONObject basicValues, final Map<String, Integer> values) {
+		for (final Map.Entry<String, Integer> entry : values.entrySet()) {
+			basicValues.getObj(entry.getKey()).put(RKPSelectors.basicValueKey(entry.getKey()), entry.getValue());
+		}
+		writtenBasicValues.clear();
+		writtenBasicValues.putAll(values);
+	}
+
+	void writeEquipment(final JSONArray inventory, final JSONObject items) {
+		for (final Layer layer : layers) {
+			if (layer != null) {
+				writeEquipment(inventory, items, layer);
+			}
+		}
+	}
+
+	private void writeLayer(final JSONObject actualTalents, final Layer layer) {
+		for (int i = 0; i < layer.selectableTalents.size(); ++i) {
+			final TalentCatalog.Entry entry = layer.selectableTalents.get(i);
+			final JSONArray talent = actualTalents.getObj(entry.group).getArr(entry.name);
+			for (final int mod : layer.selectableValues.get(i)) {
+				final JSONObject currentTalent = new JSONObject(talent);
+				currentTalent.put("TaW", mod);
+				currentTalent.put("temporary:RKPTalent", layer.type);
+				talent.add(currentTalent);
+			}
+		}
+		for (final TalentCatalog.Entry entry : layer.primaryTalents) {
+			final JSONObject talent = actualTalents.getObj(entry.group).getObj(entry.name);
+			talent.put("Leittalent", true);
+			talent.put("temporary:RKPPrimaryTalent", true);
+		}
+
+		final JSONObject languages = actualTalents.getObj("Sprachen und Schriften");
+		for (final Tuple<String, String> language : layer.languages) {
+			languages.getObj(language._1).put(language._2, true);
+		}
+	}
+
+	void writeSpells(final JSONObject actualSpells) {
+		final int size = spells.size();
+		for (int slot = 0; slot < size; ++slot) {
+			final long key = spells.key(slot);
+			if ((key & 1) != 0 || spells.count(slot) == 0) {
+				continue;
+			}
+			final TalentCatalog.Entry entry = (TalentCatalog.Entry) spells.payload(slot);
+			final JSONObject spell = actualSpells.getObj(entry.name);
+			final JSONObject representation = new JSONObject(spell);
+			representation.put("ZfW", spells.value(slot));
+			final int primarySlot = spells.find(key | 1);
+			if (primarySlot >= 0 && spells.count(primarySlot) > 0) {
+				representation.put("Hauszauber", true);
+				representation.put("temporary:RKPPrimarySpell", true);
+			}
+			spell.put(spells.representationName((int) key >>> 1), representation);
+		}
+
+		for (final Layer layer : layers) {
+			if (layer != null) {
+				writeSelectableSpells(actualSpells, layer);
+			}
+		}
+	}
+
+	void writeTalents(final JSONObject actualTalents) {
+		for (int slot = 0; slot < talents.size(); ++slot) {
+			if (talents.count(slot) == 0) {
+				continue;
+			}
+			final TalentCatalog.Entry entry = (TalentCatalog.Entry) talents.payload(slot);
+			writeTaW(actualTalents.getObj(entry.group).getObj(entry.name), entry, talents.value(slot));
+		}
+
+		for (final Layer layer : layers) {
+			if (layer != null) {
+				writeLayer(actualTalents, layer);
+			}
+		}
+	}
+
+	void written(final JSONObject hero, final JSONObject generationState) {
+		writtenHero = hero;
+		writtenBasicValuesSection = hero.getObj("Basiswerte");
+		writtenTalentsSection = hero.getObj("Talente");
+		writtenSpellsSection = hero.getObjOrDefault("Zauber", null);
+		writtenPossessionsSection = hero.getObjOrDefault("Besitz", null);
+		System.arraycopy(layers, 0, writtenLayers, 0, layers.length);
+		for (int i = 0; i < proConTypes.length; ++i) {
+			proConSources[i] = generationState.getObjOrDefault(proConTypes[i], null);
+		}
+	}
+}
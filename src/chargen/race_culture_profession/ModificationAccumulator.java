@@ -0,0 +1,166 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.race_culture_profession;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class ModificationAccumulator {
+	private int[] table = new int[64];
+	private int size = 0;
+
+	private long[] keys = new long[32];
+	private Object[] payloads = new Object[32];
+	private int[] values = new int[32];
+	private int[] counts = new int[32];
+	private boolean[] flags = new boolean[32];
+	private int[][] lists = new int[32][];
+	private int[] listSizes = new int[32];
+
+	private final Map<String, Integer> representations = new HashMap<>();
+	private final List<String> representationNames = new ArrayList<>();
+
+	private static int hash(final long key) {
+		final long mixed = key * 0x9E3779B97F4A7C15L;
+		return (int) (mixed ^ mixed >>> 32);
+	}
+
+	void add(final int slot, final int value, final int count) {
+		values[slot] += value;
+		counts[slot] += count;
+	}
+
+	void append(final int slot, final int value) {
+		int[] list = lists[slot];
+		if (list == null) {
+			list = lists[slot] = new int[4];
+		} else if (listSizes[slot] == list.length) {
+			list = lists[slot] = Arrays.copyOf(list, list.length * 2);
+		}
+		list[listSizes[slot]++] = value;
+	}
+
+	void clear() {
+		Arrays.fill(table, 0);
+		Arrays.fill(payloads, 0, size, null);
+		Arrays.fill(values, 0, size, 0);
+		Arrays.fill(counts, 0, size, 0);
+		Arrays.fill(flags, 0, size, false);
+		Arrays.fill(listSizes, 0, size, 0);
+		size = 0;
+	}
+
+	int count(final int slot) {
+		return counts[slot];
+	}
+
+	int find(final long key) {
+		final int mask = table.length - 1;
+		int index = hash(key) & mask;
+		while (table[index] != 0) {
+			final int slot = table[index] - 1;
+			if (keys[slot] == key) return slot;
+			index = index + 1 & mask;
+		}
+		return -1;
+	}
+
+	void flag(final int slot) {
+		flags[slot] = true;
+	}
+
+	boolean isFlagged(final int slot) {
+		return flags[slot];
+	}
+
+	long key(final int slot) {
+		return keys[slot];
+	}
+
+	int listSize(final int slot) {
+		return listSizes[slot];
+	}
+
+	int listValue(final int slot, final int index) {
+		return lists[slot][index];
+	}
+
+	Object payload(final int slot) {
+		return payloads[slot];
+	}
+
+	int representation(final String name) {
+		final Integer index = representations.get(name);
+		if (index != null) return index;
+		representations.put(name, representationNames.size());
+		representationNames.add(name);
+		return representationNames.size() - 1;
+	}
+
+	String representationName(final int index) {
+		return representationNames.get(index);
+	}
+
+	private void resize() {
+		final int capacity = keys.length * 2;
+		keys = Arrays.copyOf(keys, capacity);
+		payloads = Arrays.copyOf(payloads, capacity);
+		values = Arrays.copyOf(values, capacity);
+		counts = Arrays.copyOf(counts, capacity);
+		flags = Arrays.copyOf(flags, capacity);
+		lists = Arrays.copyOf(lists, capacity);
+		listSizes = Arrays.copyOf(listSizes, capacity);
+
+		table = new int[capacity * 2];
+		final int mask = table.length - 1;
+		for (int slot = 0; slot < size; ++slot) {
+			int index = hash(keys[slot]) & mask;
+			while (table[index] != 0) {
+				index = index + 1 & mask;
+			}
+			table[index] = slot + 1;
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+	int slot(final long key, final Object payload) {
+		final int mask = table.length - 1;
+		int index = hash(key) & mask;
+		while (table[index] != 0) {
+			final int slot = table[index] - 1;
+			if (keys[slot] == key) return slot;
+			index = index + 1 & mask;
+		}
+		final int slot = size++;
+		keys[slot] = key;
+		payloads[slot] = payload;
+		table[index] = slot + 1;
+		if (size == keys.length) {
+			resize();
+		}
+		return slot;
+	}
+
+	int value(final int slot) {
+		return values[slot];
+	}
+}
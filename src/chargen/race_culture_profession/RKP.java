@@ -16,12 +16,11 @@
 package chargen.race_culture_profession;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
-import dsatool.util.Tuple;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
-import jsonant.value.JSONArray;
 import jsonant.value.JSONObject;
 
 public class RKP {
@@ -33,7 +32,10 @@ public class RKP {
 	final String name;
 	final JSONObject data;
 	final RKP parent;
-	final List<RKP> variants;
+	private List<RKP> variants;
+
+	final Integer cost;
+	final String genderRequirement;
 
 	final BooleanProperty valid = new SimpleBooleanProperty(true);
 	final BooleanProperty suggested = new SimpleBooleanProperty(false);
@@ -46,21 +48,12 @@ public class RKP {
 		this.data = data;
 		this.parent = parent;
 
-		if (parent != null) {
-			variants = new ArrayList<>(parent.getVariants());
-			depth = parent.depth + 1;
-		} else {
-			variants = new ArrayList<>();
-			depth = 1;
-		}
-		final JSONObject actualVariants = data.getObjOrDefault("Varianten", null);
-		if (actualVariants != null) {
-			for (final String variantName : actualVariants.keySet()) {
-				if (actualVariants.getObj(variantName).getBoolOrDefault("kombinierbar", false)) {
-					variants.add(new RKP(type, variantName, actualVariants.getObj(variantName), this));
-				}
-			}
-		}
+		depth = parent != null ? parent.depth + 1 : 1;
+
+		final Integer ownCost = data.getIntOrDefault("Kosten", null);
+		cost = ownCost != null || parent == null ? ownCost : parent.cost;
+		final JSONObject requirements = data.getObjOrDefault("Voraussetzungen", null);
+		genderRequirement = requirements != null ? requirements.getStringOrDefault("Geschlecht", null) : null;
 	}
 
 	@Override
@@ -72,28 +65,39 @@ public class RKP {
 	}
 
 	public Integer getCost(final Integer defaultValue) {
-		return RKPSelectors.getInt(this, "Kosten", defaultValue);
+		return cost != null ? cost : defaultValue;
 	}
 
-	public String getName(final boolean female) {
-		return female ? data.getStringOrDefault("Weiblich", name) : name;
+	public String getDisplayName(final boolean female) {
+		return getName(female) + " (" + (cost == null ? "GP nach Variante" : cost + " GP") + ')';
 	}
 
-	public Tuple<JSONArray, JSONArray> getSuggestedOrPossible() {
-		return switch (type) {
-			case Race -> new Tuple<>(data.getArrOrDefault("Übliche Kulturen", null), data.getArrOrDefault("Mögliche Kulturen", null));
-			case Culture -> new Tuple<>(null, data.getArrOrDefault("Professionen", null));
-			default -> new Tuple<>(null, null);
-		};
+	public String getName(final boolean female) {
+		return female ? data.getStringOrDefault("Weiblich", name) : name;
 	}
 
 	public List<RKP> getVariants() {
+		if (variants == null) {
+			final List<RKP> inherited = parent != null ? parent.getVariants() : Collections.emptyList();
+			final JSONObject actualVariants = data.getObjOrDefault("Varianten", null);
+			List<RKP> result = null;
+			if (actualVariants != null) {
+				for (final String variantName : actualVariants.keySet()) {
+					if (actualVariants.getObj(variantName).getBoolOrDefault("kombinierbar", false)) {
+						if (result == null) {
+							result = new ArrayList<>(inherited);
+						}
+						result.add(new RKP(type, variantName, actualVariants.getObj(variantName), this));
+					}
+				}
+			}
+			variants = result != null ? Collections.unmodifiableList(result) : inherited;
+		}
 		return variants;
 	}
 
 	@Override
 	public String toString() {
-		final Integer cost = getCost(null);
-		return getName(RKPSelectors.male != null && !RKPSelectors.male.isSelected()) + " (" + (cost == null ? "GP nach Variante" : getCost(0) + " GP") + ')';
+		return getDisplayName(RKPSelectors.male != null && !RKPSelectors.male.isSelected());
 	}
 }
@@ -15,20 +15,25 @@
  */
 package chargen.race_culture_profession;
 
+import java.text.CollationKey;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 
+import chargen.util.ChargenUtil;
 import dsatool.util.ErrorLogger;
 import dsatool.util.Tuple;
 import dsatool.util.Tuple3;
 import dsatool.util.Util;
-import javafx.beans.binding.Bindings;
+import javafx.animation.PauseTransition;
 import javafx.beans.value.ChangeListener;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
@@ -37,10 +42,103 @@ import javafx.scene.control.TreeCell;
 import javafx.scene.control.TreeItem;
 import javafx.scene.control.TreeView;
 import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 import jsonant.value.JSONArray;
 import jsonant.value.JSONObject;
 
 public class RKPSelector {
+	private class Item {
+		private final RKP rkp;
+		private final JSONObject childData;
+		private final TreeItem<RKP> treeItem;
+		private final boolean hasChildren;
+		private List<Item> children;
+		private boolean childSuggestions = true;
+		private final String maleText;
+		private final String femaleText;
+		private CollationKey sortKey;
+
+		private Item(final RKP rkp, final JSONObject childData, final TreeItem<RKP> treeItem) {
+			this.rkp = rkp;
+			this.childData = childData;
+			maleText = rkp != null ? rkp.getDisplayName(false).toLowerCase() : "";
+			femaleText = rkp != null ? rkp.getDisplayName(true).toLowerCase() : "";
+
+			boolean hasChildren = false;
+			if (childData != null) {
+				for (final String childName : childData.keySet()) {
+					if (isChild(childData.getObj(childName))) {
+						hasChildren = true;
+						break;
+					}
+				}
+			}
+			this.hasChildren = hasChildren;
+
+			if (treeItem != null) {
+				this.treeItem = treeItem;
+			} else {
+				this.treeItem = new ItemTreeItem(this);
+				this.treeItem.expandedProperty().addListener((_, _, expanded) -> {
+					if (expanded && children == null) {
+						children();
+						applyFilter(this, "", null, true);
+					}
+				});
+			}
+		}
+
+		private List<Item> children() {
+			if (children == null) {
+				children = new ArrayList<>();
+				if (childData != null) {
+					for (final String childName : childData.keySet()) {
+						final JSONObject child = childData.getObj(childName);
+						if (isChild(child)) {
+							final RKP childRKP = itemConstructor.apply(new Tuple3<>(childName, child, rkp));
+							children.add(new Item(childRKP, child.getObjOrDefault("Varianten", null), null));
+						}
+					}
+				}
+				if (!propagating && suggestedPredicate != null && possiblePredicate != null) {
+					for (final Item child : children) {
+						propagate(child, childSuggestions ? suggestedPredicate : _ -> false, possiblePredicate, childSuggestions);
+					}
+				}
+			}
+			return children;
+		}
+
+		private boolean matches(final String filter) {
+			return maleText.contains(filter) || femaleText.contains(filter);
+		}
+
+		private CollationKey sortKey() {
+			if (sortKey == null) {
+				sortKey = ChargenUtil.getCollationKey(rkp.toString());
+			}
+			return sortKey;
+		}
+	}
+
+	private static class ItemTreeItem extends TreeItem<RKP> {
+		private final Item item;
+
+		private ItemTreeItem(final Item item) {
+			super(item.rkp);
+			this.item = item;
+		}
+
+		@Override
+		public boolean isLeaf() {
+			return !item.hasChildren;
+		}
+	}
+
+	static boolean isChild(final JSONObject data) {
+		return !data.getBoolOrDefault("kombinierbar", false) && data.getBoolOrDefault("Generierung", true);
+	}
+
 	@FXML
 	private Node pane;
 	@FXML
@@ -61,9 +159,18 @@ public class RKPSelector {
 	private JSONObject data;
 	private Function<Tuple3<String, JSONObject, RKP>, RKP> itemConstructor;
 
-	private SortedList<TreeItem<RKP>> rootSorter = null;
+	private Item rootItem;
 
 	private String filterString = "";
+	private final PauseTransition filterDelay = new PauseTransition(Duration.millis(150));
+	private boolean filtering = false;
+	private boolean propagating = false;
+
+	private Function<RKP, Boolean> suggestedPredicate;
+	private Function<RKP, Boolean> possiblePredicate;
+	private BiFunction<RKP, Boolean, Tuple<Boolean, Boolean>> belowFunction;
+	private Object suggestedPossibleInputs;
+	private boolean suggestedPossibleDirty = true;
 
 	public RKPSelector(final Runnable updateValue, final JSONObject data, final Function<Tuple3<String, JSONObject, RKP>, RKP> itemConstructor) {
 		final FXMLLoader fxmlLoader = new FXMLLoader();
@@ -81,9 +188,13 @@ public class RKPSelector {
 		this.itemConstructor = itemConstructor;
 
 		tree.getSelectionModel().selectedItemProperty().addListener((ChangeListener<TreeItem<RKP>>) (_, oldV, newV) -> {
-			updateSelection(newV, oldV == null || newV != null && newV.getValue().data != oldV.getValue().data);
+			if (!filtering) {
+				updateSelection(newV, oldV == null || newV != null && newV.getValue().data != oldV.getValue().data);
+			}
 		});
 
+		filterDelay.setOnFinished(_ -> applyFilter());
+
 		tree.setCellFactory(_ -> {
 			final TreeCell<RKP> cell = new TreeCell<>() {
 				@Override
@@ -136,50 +247,84 @@ public class RKPSelector {
 		refreshList();
 	}
 
-	private TreeItem<RKP> addItem(final TreeItem<RKP> parent, final RKP item, final RKP selected, final boolean mustExist) {
-		final JSONObject actual = item.data;
-		TreeItem<RKP> toSelect = null;
-		if (!actual.getBoolOrDefault("kombinierbar", false)) {
-			final TreeItem<RKP> treeItem = new TreeItem<>(item);
-			if (selected != null && selected.data == actual) {
-				toSelect = treeItem;
-			}
-			final boolean exists = mustExist || toSelect != null || filterString.isBlank()
-					|| item.toString().toLowerCase().contains(filterString.toLowerCase());
-			if (actual.containsKey("Varianten")) {
-				final JSONObject variants = actual.getObj("Varianten");
-				for (final String variantName : variants.keySet()) {
-					final JSONObject variant = variants.getObj(variantName);
-					if (!variant.getBoolOrDefault("Generierung", true)) {
-						continue;
-					}
-					final TreeItem<RKP> newSelection = addItem(treeItem, itemConstructor.apply(new Tuple3<>(variantName, variant, item)), selected, exists);
-					if (newSelection != null) {
-						toSelect = newSelection;
-					}
-				}
-			}
-			if (exists || !treeItem.getChildren().isEmpty()) {
-				parent.getChildren().add(treeItem);
-				if (!exists) {
-					treeItem.setExpanded(true);
-				}
-			}
-			if (RKPSelectors.sorted) {
-				Bindings.bindContent(treeItem.getChildren(),
-						new SortedList<>(treeItem.getChildren(), (l, r) -> l.getValue().toString().compareTo(r.getValue().toString())));
+	private void applyFilter() {
+		final TreeItem<RKP> selectedItem = tree.getSelectionModel().getSelectedItem();
+		filtering = true;
+		applyFilter(selectedItem != null ? selectedItem.getValue() : null);
+		if (selectedItem != null && tree.getSelectionModel().getSelectedItem() != selectedItem) {
+			tree.getSelectionModel().select(selectedItem);
+		}
+		filtering = false;
+	}
+
+	private void applyFilter(final RKP selected) {
+		if (rootItem != null) {
+			applyFilter(rootItem, filterString.isBlank() ? "" : filterString.toLowerCase(), selected, false);
+		}
+	}
+
+	private boolean applyFilter(final Item item, final String filter, final RKP selected, final boolean mustExist) {
+		final boolean exists = item != rootItem
+				&& (mustExist || filter.isEmpty() || selected != null && selected.data == item.rkp.data || item.matches(filter));
+		if (item.children == null && item != rootItem && exists) return true;
+		final List<Item> visibleItems = new ArrayList<>();
+		for (final Item child : item.children()) {
+			if (applyFilter(child, filter, selected, exists)) {
+				visibleItems.add(child);
 			}
 		}
-		return toSelect;
+		if (RKPSelectors.sorted) {
+			visibleItems.sort((l, r) -> l.sortKey().compareTo(r.sortKey()));
+		}
+		final List<TreeItem<RKP>> visible = new ArrayList<>(visibleItems.size());
+		for (final Item child : visibleItems) {
+			visible.add(child.treeItem);
+		}
+		if (!item.treeItem.getChildren().equals(visible)) {
+			item.treeItem.getChildren().setAll(visible);
+		}
+		if (item != rootItem && !exists && !visible.isEmpty()) {
+			item.treeItem.setExpanded(true);
+		}
+		return exists || !visible.isEmpty();
 	}
 
 	private TreeItem<RKP> findChild(final TreeItem<RKP> item, final String child) {
+		final Item parent = item == root ? rootItem : ((ItemTreeItem) item).item;
+		if (parent.children == null) {
+			parent.children();
+			applyFilter(parent, "", null, true);
+		}
 		for (final TreeItem<RKP> current : item.getChildren()) {
 			if (child.equals(current.getValue().name)) return current;
 		}
 		return null;
 	}
 
+	private TreeItem<RKP> findSelection(final RKP selected) {
+		if (selected == null) return null;
+		final List<JSONObject> path = new ArrayList<>();
+		for (RKP current = selected; current != null; current = current.parent) {
+			path.add(0, current.data);
+		}
+		Item current = rootItem;
+		for (final JSONObject data : path) {
+			if (current == rootItem && current.rkp != null && current.rkp.data == data) {
+				continue;
+			}
+			Item next = null;
+			for (final Item child : current.children()) {
+				if (child.rkp.data == data) {
+					next = child;
+					break;
+				}
+			}
+			if (next == null) return null;
+			current = next;
+		}
+		return current != rootItem ? current.treeItem : null;
+	}
+
 	public Node getControl() {
 		return pane;
 	}
@@ -199,34 +344,13 @@ public class RKPSelector {
 	public void refreshList() {
 		final TreeItem<RKP> selectedItem = tree.getSelectionModel().getSelectedItem();
 		final RKP selected = selectedItem != null ? selectedItem.getValue() : null;
-		TreeItem<RKP> toSelect = null;
-
-		if (rootSorter != null) {
-			Bindings.unbindContent(root.getChildren(), rootSorter);
-		}
-
-		root.getChildren().clear();
 
 		root.setValue(null);
-		if (data != null) {
-			for (final String itemName : data.keySet()) {
-				final JSONObject item = data.getObj(itemName);
-				if (!item.getBoolOrDefault("Generierung", true)) {
-					continue;
-				}
-				final TreeItem<RKP> newSelection = addItem(root, itemConstructor.apply(new Tuple3<>(itemName, item, null)), selected, false);
-				if (newSelection != null) {
-					toSelect = newSelection;
-				}
-			}
-		}
+		rootItem = new Item(null, data, root);
+		final TreeItem<RKP> toSelect = findSelection(selected);
 
-		if (RKPSelectors.sorted) {
-			rootSorter = new SortedList<>(root.getChildren(), (l, r) -> l.getValue().toString().compareTo(r.getValue().toString()));
-			Bindings.bindContent(root.getChildren(), rootSorter);
-		} else {
-			rootSorter = null;
-		}
+		applyFilter(selected);
+		propagateSuggestedPossible();
 
 		tree.getSelectionModel().clearSelection();
 		tree.getSelectionModel().select(toSelect);
@@ -284,41 +408,31 @@ public class RKPSelector {
 	}
 
 	public void setFilter(final String filterString) {
+		if (this.filterString.equals(filterString)) return;
 		this.filterString = filterString;
-		refreshList();
+		filterDelay.playFromStart();
 	}
 
 	public void setRoot(final String name, final JSONObject data) {
 		final TreeItem<RKP> selectedItem = tree.getSelectionModel().getSelectedItem();
 		final RKP selected = selectedItem != null ? selectedItem.getValue() : null;
-		TreeItem<RKP> toSelect = root;
 
-		if (rootSorter != null) {
-			Bindings.unbindContent(root.getChildren(), rootSorter);
-		}
-
-		root.getChildren().clear();
 		if (data != null) {
-			final RKP rootItem = itemConstructor.apply(new Tuple3<>(name, data, null));
-			root.setValue(rootItem);
-			for (final String itemName : data.getObj("Varianten").keySet()) {
-				final JSONObject item = data.getObj("Varianten").getObj(itemName);
-				final TreeItem<RKP> newSelection = addItem(root, itemConstructor.apply(new Tuple3<>(itemName, item, rootItem)), selected, false);
-				if (newSelection != null) {
-					toSelect = newSelection;
-				}
-			}
+			final RKP rootRKP = itemConstructor.apply(new Tuple3<>(name, data, null));
+			root.setValue(rootRKP);
+			rootItem = new Item(rootRKP, data.getObj("Varianten"), root);
+			final TreeItem<RKP> found = findSelection(selected);
+			final TreeItem<RKP> toSelect = found != null ? found : root;
 
-			if (RKPSelectors.sorted) {
-				rootSorter = new SortedList<>(root.getChildren(), (l, r) -> l.getValue().toString().compareTo(r.getValue().toString()));
-				Bindings.bindContent(root.getChildren(), rootSorter);
-			} else {
-				rootSorter = null;
-			}
+			applyFilter(selected);
+			propagateSuggestedPossible();
 
 			tree.getSelectionModel().select(toSelect);
 			updateSelection(toSelect, false);
 		} else {
+			rootItem = new Item(null, null, root);
+			root.getChildren().clear();
+			suggestedPossibleDirty = true;
 			tree.getSelectionModel().clearSelection();
 			updateSelection(null, true);
 		}
@@ -334,12 +448,16 @@ public class RKPSelector {
 		variants.clear();
 		suggestedListeners.clear();
 		validListeners.clear();
-		if (selected != null && selected.getChildren().isEmpty()) {
+		if (selected != null && selected.isLeaf()) {
 			final RKP value = selected.getValue();
-			final List<RKP> actualVariants = value.getVariants();
+			final List<RKP> actualVariants = new ArrayList<>(value.getVariants());
 			currentVariants = new ArrayList<>(actualVariants.size());
 			if (RKPSelectors.sorted) {
-				actualVariants.sort((l, r) -> l.toString().compareTo(r.toString()));
+				final Map<RKP, CollationKey> sortKeys = new IdentityHashMap<>();
+				for (final RKP variant : actualVariants) {
+					sortKeys.put(variant, ChargenUtil.getCollationKey(variant.toString()));
+				}
+				actualVariants.sort(Comparator.comparing(sortKeys::get));
 			}
 			for (final RKP variant : actualVariants) {
 				final CheckBox variantCheckbox = new CheckBox(variant.name + " (" + Util.getSignedIntegerString(variant.getCost(0)) + ")");
@@ -379,7 +497,7 @@ public class RKPSelector {
 			}
 			currentChoice = value;
 		} else {
-			if (selected != null && !selected.getChildren().isEmpty()) {
+			if (selected != null && !selected.isLeaf()) {
 				selected.setExpanded(true);
 			}
 			currentChoice = null;
@@ -390,52 +508,100 @@ public class RKPSelector {
 		}
 	}
 
-	public void updateSuggestedPossible(final Function<RKP, Boolean> suggested, final Function<RKP, Boolean> possible) {
-		updateSuggestedPossible(root, suggested, possible);
+	public int updateSuggestedPossible(final Function<RKP, Boolean> suggested, final Function<RKP, Boolean> possible) {
+		return updateSuggestedPossible(null, suggested, possible);
+	}
+
+	public int updateSuggestedPossible(final Object inputs, final Function<RKP, Boolean> suggested, final Function<RKP, Boolean> possible) {
+		return updateSuggestedPossible(inputs, suggested, possible, null);
 	}
 
-	private Tuple<Boolean, Boolean> updateSuggestedPossible(final TreeItem<RKP> treeItem, final Function<RKP, Boolean> suggested,
-			final Function<RKP, Boolean> possible) {
-		final RKP item = treeItem.getValue();
+	public int updateSuggestedPossible(final Object inputs, final Function<RKP, Boolean> suggested, final Function<RKP, Boolean> possible,
+			final BiFunction<RKP, Boolean, Tuple<Boolean, Boolean>> below) {
+		if (!suggestedPossibleDirty && inputs != null && inputs.equals(suggestedPossibleInputs)) return 0;
+		suggestedPossibleInputs = inputs;
+		suggestedPredicate = suggested;
+		possiblePredicate = possible;
+		belowFunction = below;
+		return propagateSuggestedPossible();
+	}
+
+	private int propagate(final Item item, final Function<RKP, Boolean> suggested, final Function<RKP, Boolean> possible, final boolean suggestions) {
+		final Map<RKP, Boolean> suggestedCache = new IdentityHashMap<>();
+		final Map<RKP, Boolean> possibleCache = new IdentityHashMap<>();
+		final Map<RKP, Tuple<Boolean, Boolean>> states = new IdentityHashMap<>();
+		propagating = true;
+		try {
+			updateSuggestedPossible(item, rkp -> suggestedCache.computeIfAbsent(rkp, suggested), rkp -> possibleCache.computeIfAbsent(rkp, possible), suggestions,
+					states);
+		} finally {
+			propagating = false;
+		}
+
+		int touched = 0;
+		for (final Entry<RKP, Tuple<Boolean, Boolean>> state : states.entrySet()) {
+			final RKP rkp = state.getKey();
+			final boolean isValid = state.getValue()._1;
+			final boolean isSuggested = state.getValue()._2;
+			if (rkp.valid.get() != isValid || rkp.suggested.get() != isSuggested) {
+				rkp.valid.set(isValid);
+				rkp.suggested.set(isSuggested);
+				++touched;
+			}
+		}
+		return touched;
+	}
+
+	private int propagateSuggestedPossible() {
+		suggestedPossibleDirty = false;
+		if (rootItem == null || suggestedPredicate == null || possiblePredicate == null) return 0;
+		return propagate(rootItem, suggestedPredicate, possiblePredicate, true);
+	}
+
+	private Tuple<Boolean, Boolean> updateSuggestedPossible(final Item treeItem, final Function<RKP, Boolean> suggested,
+			final Function<RKP, Boolean> possible, final boolean suggestions, final Map<RKP, Tuple<Boolean, Boolean>> states) {
+		final RKP item = treeItem.rkp;
 		if (item != null) {
 			for (final RKP variant : item.getVariants()) {
 				if (suggested.apply(variant)) {
-					variant.valid.set(true);
-					variant.suggested.set(true);
+					states.put(variant, new Tuple<>(true, true));
 				} else {
-					if (!possible.apply(variant)) {
-						variant.valid.set(false);
-					} else {
-						variant.valid.set(true);
-					}
-					variant.suggested.set(false);
+					states.put(variant, new Tuple<>(possible.apply(variant), false));
 				}
 			}
 		}
 		if (item != null && suggested.apply(item)) {
-			item.valid.set(true);
-			item.suggested.set(true);
-			for (final TreeItem<RKP> variantItem : treeItem.getChildren()) {
-				updateSuggestedPossible(variantItem, _ -> false, possible);
+			states.put(item, new Tuple<>(true, true));
+			treeItem.childSuggestions = false;
+			if (treeItem.children != null) {
+				for (final Item variantItem : treeItem.children) {
+					updateSuggestedPossible(variantItem, _ -> false, possible, false, states);
+				}
 			}
 			return new Tuple<>(true, true);
 		} else if (item != null && possible.apply(item)) {
-			item.valid.set(true);
-			item.suggested.set(false);
-			for (final TreeItem<RKP> variantItem : treeItem.getChildren()) {
-				updateSuggestedPossible(variantItem, _ -> false, possible);
+			states.put(item, new Tuple<>(true, false));
+			treeItem.childSuggestions = false;
+			if (treeItem.children != null) {
+				for (final Item variantItem : treeItem.children) {
+					updateSuggestedPossible(variantItem, _ -> false, possible, false, states);
+				}
 			}
 			return new Tuple<>(true, false);
 		} else {
-			if (item != null && treeItem.getChildren().size() == 0) {
-				item.valid.set(false);
-				item.suggested.set(false);
+			treeItem.childSuggestions = suggestions;
+			if (item != null && !treeItem.hasChildren) {
+				states.put(item, new Tuple<>(false, false));
 				return new Tuple<>(false, false);
+			} else if (item != null && treeItem.children == null && belowFunction != null) {
+				final Tuple<Boolean, Boolean> below = belowFunction.apply(item, suggestions);
+				states.put(item, below);
+				return below;
 			} else {
 				boolean someValid = false;
 				boolean allSuggested = true;
-				for (final TreeItem<RKP> variantItem : treeItem.getChildren()) {
-					final Tuple<Boolean, Boolean> child = updateSuggestedPossible(variantItem, suggested, possible);
+				for (final Item variantItem : treeItem.children()) {
+					final Tuple<Boolean, Boolean> child = updateSuggestedPossible(variantItem, suggested, possible, suggestions, states);
 					if (child._1) {
 						someValid = true;
 					}
@@ -444,8 +610,7 @@ public class RKPSelector {
 					}
 				}
 				if (item != null) {
-					item.valid.set(someValid);
-					item.suggested.set(allSuggested);
+					states.put(item, new Tuple<>(someValid, allSuggested));
 				}
 				return new Tuple<>(someValid, allSuggested);
 			}
@@ -16,25 +16,24 @@
 package chargen.race_culture_profession;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
-import java.util.function.BiConsumer;
-import java.util.function.Consumer;
+import java.util.function.BiFunction;
 import java.util.function.Predicate;
 
 import chargen.race_culture_profession.BGBVeteranSelector.BGBVeteran;
 import chargen.ui.TabController;
 import chargen.util.ChargenUtil;
+import chargen.util.TalentCatalog;
 import dsa41basis.util.HeroUtil;
 import dsa41basis.util.RKPUtil;
 import dsatool.resources.ResourceManager;
 import dsatool.util.Tuple;
-import dsatool.util.Tuple3;
-import dsatool.util.Tuple5;
+import javafx.application.Platform;
 import javafx.beans.property.IntegerProperty;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -63,7 +62,9 @@ public class RKPSelectors extends TabController {
 
 	public static boolean sorted = false;
 
-	private static String basicValueKey(final String value) {
+	public static boolean parallelCollection = true;
+
+	static String basicValueKey(final String value) {
 		return switch (value) {
 			case "Sozialstatus", "Geschwindigkeit" -> "Wert";
 			case "Karmaenergie" -> "Permanent";
@@ -94,6 +95,14 @@ public class RKPSelectors extends TabController {
 		return source.name;
 	}
 
+	private static List<Object> suggestedPossibleInputs(final Object... inputs) {
+		final List<Object> result = new ArrayList<>(inputs.length);
+		for (final Object input : inputs) {
+			result.add(input instanceof final List<?> list ? new ArrayList<>(list) : input);
+		}
+		return result;
+	}
+
 	private final VBox leftBox;
 	private Label raceLabel;
 	private Label cultureLabel;
@@ -111,206 +120,233 @@ public class RKPSelectors extends TabController {
 	private boolean changedProfession;
 
 	private boolean changedBgbVeteran;
+
+	private boolean pendingRace;
+	private boolean pendingCulture;
+	private boolean pendingProfession;
+	private boolean pendingBgbVeteran;
+	private boolean pendingRaceValidity;
+	private boolean pendingCultureValidity;
+	private boolean pendingProfessionValidity;
+	private boolean pendingListRefresh;
+	private boolean validityUpdateScheduled;
+
 	private final Tab raceTab;
 	private final Tab cultureTab;
 	private final Tab professionTab;
 
 	private final Tab bgbVeteranTab;
+
+	private final BuildCache buildCache = new BuildCache(64);
+
 	private int raceCost = 0;
 	private int cultureCost = 0;
 	private int professionCost = 0;
 
 	private int bgbVeteranCost = 0;
 
-	private final List<Tuple5<String, String, Predicate<JSONObject>, Consumer<JSONObject>, BiConsumer<JSONObject, JSONObject>>> specialCases = new ArrayList<>(
-			List.of(
-					new Tuple5<String, String, Predicate<JSONObject>, Consumer<JSONObject>, BiConsumer<JSONObject, JSONObject>>(
-							"Geode", "Rasse",
-							hero -> "Geode".equals(hero.getObj("Biografie").getString("Profession")),
-							race -> {
-								race.getObj("Vorteile").removeKey("Schwer zu verzaubern");
-								race.getObj("Nachteile").removeKey("Goldgier");
-							},
-							(race, unalteredRace) -> {
-								final JSONObject unalteredPros = unalteredRace.getObj("Vorteile");
-								if (unalteredPros.containsKey("Schwer zu verzaubern")) {
-									final JSONObject pros = race.getObj("Vorteile");
-									pros.put("Schwer zu verzaubern", unalteredPros.getObj("Schwer zu verzaubern").clone(pros));
-								}
-								final JSONObject unalteredCons = unalteredRace.getObj("Nachteile");
-								if (unalteredCons.containsKey("Goldgier")) {
-									final JSONObject cons = race.getObj("Nachteile");
-									cons.put("Goldgier", unalteredPros.getObj("Goldgier").clone(cons));
-								}
-							}),
-
-					new Tuple5<String, String, Predicate<JSONObject>, Consumer<JSONObject>, BiConsumer<JSONObject, JSONObject>>(
-							"ZwergischerMagier", "Rasse",
-							hero -> "Zwerg".equals(hero.getObj("Biografie").getString("Rasse"))
-									&& "Magier".equals(hero.getObj("Biografie").getString("Profession")),
-							race -> {
-								final JSONObject pros = race.getObj("Vorteile");
-								pros.removeKey("Schwer zu verzaubern");
-								pros.put("Eisenaffine Aura", new JSONObject(pros));
-								final JSONObject mr = pros.getObjOrDefault("Hohe Magieresistenz", new JSONObject(pros));
-								mr.put("Stufe", mr.getIntOrDefault("Stufe", 0) + 3);
-								pros.put("Hohe Magieresistenz", mr);
-
-								final JSONObject cons = race.getObj("Nachteile");
-								JSONArray choices;
-								if (cons.containsKey("Wahl")) {
-									choices = cons.getArr("Wahl");
-									if (choices.getObjs().stream().anyMatch(choice -> choice.containsKey("Unfähigkeit für Merkmal"))) return;
-								} else {
-									choices = new JSONArray(cons);
-									cons.put("Wahl", choices);
-								}
-								final JSONObject choice = new JSONObject(choices);
-								final JSONArray traits = new JSONArray(choice);
-								for (final String traitName : new String[] { "Eigenschaften", "Einfluss", "Form", "Heilung", "Hellsicht", "Herrschaft" }) {
-									final JSONObject trait = new JSONObject(traits);
-									trait.put("Auswahl", traitName);
-									traits.add(trait);
-								}
-								choice.put("Unfähigkeit für Merkmal", traits);
-								choices.add(choice);
-								choices.add(choice.clone(choices));
-							},
-							(race, unalteredRace) -> {
-								final JSONObject unalteredPros = unalteredRace.getObj("Vorteile");
-								final JSONObject pros = generationState.getObj("Rasse").getObj("Vorteile");
-								if (unalteredPros.containsKey("Schwer zu verzaubern")) {
-									pros.put("Schwer zu verzaubern", unalteredPros.getObj("Schwer zu verzaubern").clone(pros));
-								}
-								if (!unalteredPros.containsKey("Eisenaffine Aura")) {
-									pros.removeKey("Eisenaffine Aura");
-								}
-								if (unalteredPros.containsKey("Hohe Magieresistenz")) {
-									pros.put("Hohe Magieresistenz", unalteredPros.getObj("Hohe Magieresistenz").clone(pros));
-								} else {
-									pros.removeKey("Hohe Magieresistenz");
-								}
+	private final HeroLayers layers = new HeroLayers();
+
+	private final Map<String, List<SpecialCase>> specialCases = new LinkedHashMap<>();
+
+	private final List<SpecialCase> builtinSpecialCases = List.of(
+			new SpecialCase(
+					"Geode", "Rasse", new String[] { "Rasse", "Profession" },
+					hero -> "Geode".equals(hero.getObj("Biografie").getString("Profession")),
+					race -> {
+						race.getObj("Vorteile").removeKey("Schwer zu verzaubern");
+						race.getObj("Nachteile").removeKey("Goldgier");
+					},
+					(race, unalteredRace) -> {
+						final JSONObject unalteredPros = unalteredRace.getObj("Vorteile");
+						if (unalteredPros.containsKey("Schwer zu verzaubern")) {
+							final JSONObject pros = race.getObj("Vorteile");
+							pros.put("Schwer zu verzaubern", unalteredPros.getObj("Schwer zu verzaubern").clone(pros));
+						}
+						final JSONObject unalteredCons = unalteredRace.getObj("Nachteile");
+						if (unalteredCons.containsKey("Goldgier")) {
+							final JSONObject cons = race.getObj("Nachteile");
+							cons.put("Goldgier", unalteredCons.getObj("Goldgier").clone(cons));
+						}
+					}),
+
+			new SpecialCase(
+					"ZwergischerMagier", "Rasse", new String[] { "Rasse", "Profession" },
+					hero -> "Zwerg".equals(hero.getObj("Biografie").getString("Rasse"))
+							&& "Magier".equals(hero.getObj("Biografie").getString("Profession")),
+					race -> {
+						final JSONObject pros = race.getObj("Vorteile");
+						pros.removeKey("Schwer zu verzaubern");
+						pros.put("Eisenaffine Aura", new JSONObject(pros));
+						final JSONObject mr = pros.getObjOrDefault("Hohe Magieresistenz", new JSONObject(pros));
+						mr.put("Stufe", mr.getIntOrDefault("Stufe", 0) + 3);
+						pros.put("Hohe Magieresistenz", mr);
+
+						final JSONObject cons = race.getObj("Nachteile");
+						JSONArray choices;
+						if (cons.containsKey("Wahl")) {
+							choices = cons.getArr("Wahl");
+							if (choices.getObjs().stream().anyMatch(choice -> choice.containsKey("Unfähigkeit für Merkmal"))) return;
+						} else {
+							choices = new JSONArray(cons);
+							cons.put("Wahl", choices);
+						}
+						final JSONObject choice = new JSONObject(choices);
+						final JSONArray traits = new JSONArray(choice);
+						for (final String traitName : new String[] { "Eigenschaften", "Einfluss", "Form", "Heilung", "Hellsicht", "Herrschaft" }) {
+							final JSONObject trait = new JSONObject(traits);
+							trait.put("Auswahl", traitName);
+							traits.add(trait);
+						}
+						choice.put("Unfähigkeit für Merkmal", traits);
+						choices.add(choice);
+						choices.add(choice.clone(choices));
+					},
+					(race, unalteredRace) -> {
+						final JSONObject unalteredPros = unalteredRace.getObj("Vorteile");
+						final JSONObject pros = generationState.getObj("Rasse").getObj("Vorteile");
+						if (unalteredPros.containsKey("Schwer zu verzaubern")) {
+							pros.put("Schwer zu verzaubern", unalteredPros.getObj("Schwer zu verzaubern").clone(pros));
+						}
+						if (!unalteredPros.containsKey("Eisenaffine Aura")) {
+							pros.removeKey("Eisenaffine Aura");
+						}
+						if (unalteredPros.containsKey("Hohe Magieresistenz")) {
+							pros.put("Hohe Magieresistenz", unalteredPros.getObj("Hohe Magieresistenz").clone(pros));
+						} else {
+							pros.removeKey("Hohe Magieresistenz");
+						}
 
-								final JSONArray choices = race.getObj("Nachteile").getArr("Wahl");
-								final JSONObject choice = new JSONObject(choices);
-								final JSONArray traits = new JSONArray(choice);
-								for (final String traitName : new String[] { "Eigenschaften", "Einfluss", "Form", "Heilung", "Hellsicht", "Herrschaft" }) {
-									final JSONObject trait = new JSONObject(traits);
-									trait.put("Auswahl", traitName);
-									traits.add(trait);
-								}
-								choices.remove(choice);
-								choices.remove(choice);
-							}),
-
-					new Tuple5<String, String, Predicate<JSONObject>, Consumer<JSONObject>, BiConsumer<JSONObject, JSONObject>>(
-							"TocamuyacSchamane", "Kultur",
-							hero -> "Medizinmann".equals(hero.getObj("Biografie").getString("Profession"))
-									&& hero.getObj("Biografie").getArr("Profession:Modifikation").contains("Tocamuyac")
-									&& "Tocamuyac".equals(hero.getObj("Biografie").getString("Kultur")),
-							culture -> {
-								culture.getObj("Vorteile").removeKey("Richtungssinn");
-							},
-							(culture, unalteredCulture) -> {
-								final JSONObject unalteredPros = unalteredCulture.getObj("Vorteile");
-								if (unalteredPros.containsKey("Richtungssinn")) {
-									final JSONObject pros = culture.getObj("Vorteile");
-									pros.put("Richtungssinn", unalteredPros.getObj("Richtungssinn").clone(pros));
-								}
-							}),
-
-					new Tuple5<String, String, Predicate<JSONObject>, Consumer<JSONObject>, BiConsumer<JSONObject, JSONObject>>(
-							"SchamaneMitTotenangst", "Kultur",
-							hero -> "Medizinmann".equals(hero.getObj("Biografie").getString("Profession"))
-									&& hero.getObj("Biografie").getArr("Profession:Modifikation").contains("Waldinsel-Utulus")
-									&& "Waldinsel-Utulus".equals(hero.getObj("Biografie").getString("Kultur"))
-									|| "Kasknus".equals(hero.getObj("Biografie").getString("Profession"))
-											&& "Nivesenstämme".equals(hero.getObj("Biografie").getString("Kultur"))
-									|| "Brenoch-Dûn".equals(hero.getObj("Biografie").getString("Profession"))
-											&& "Gjalskerland".equals(hero.getObj("Biografie").getString("Kultur")),
-							culture -> {
-								culture.getObj("Nachteile").removeKey("Totenangst");
-							},
-							(culture, unalteredCulture) -> {
-								final JSONObject unalteredCons = unalteredCulture.getObj("Nachteile");
-								if (unalteredCons.containsKey("Totenangst")) {
-									final JSONObject cons = culture.getObj("Nachteile");
-									cons.put("Totenangst", unalteredCons.getObj("Totenangst").clone(cons));
-								}
-							}),
-
-					new Tuple5<String, String, Predicate<JSONObject>, Consumer<JSONObject>, BiConsumer<JSONObject, JSONObject>>(
-							"DarnaSchamane", "Kultur",
-							hero -> "Medizinmann".equals(hero.getObj("Biografie").getString("Profession"))
-									&& hero.getObj("Biografie").getArr("Profession:Modifikation").contains("Darna")
-									&& "Darna".equals(hero.getObj("Biografie").getString("Kultur")),
-							culture -> {
-								culture.getObj("Vorteile").removeKey("Viertelzauberer");
-							},
-							(culture, unalteredCulture) -> {
-								final JSONObject unalteredPros = unalteredCulture.getObj("Vorteile");
-								if (unalteredPros.containsKey("Viertelzauberer")) {
-									final JSONObject pros = culture.getObj("Vorteile");
-									pros.put("Viertelzauberer", unalteredPros.getObj("Viertelzauberer").clone(pros));
-								}
-							}),
-
-					new Tuple5<String, String, Predicate<JSONObject>, Consumer<JSONObject>, BiConsumer<JSONObject, JSONObject>>(
-							"GoblinSchamamin", "Rasse",
-							hero -> "Goblin-Schamanin".equals(hero.getObj("Biografie").getString("Profession"))
-									&& "Goblin".equals(hero.getObj("Biografie").getString("Rasse")),
-							race -> {
-								race.getObj("Nachteile").removeKey("Unstet");
-							},
-							(race, unalteredRace) -> {
-								final JSONObject unalteredCons = unalteredRace.getObj("Nachteile");
-								if (unalteredCons.containsKey("Unstet")) {
-									final JSONObject cons = race.getObj("Nachteile");
-									cons.put("Unstet", unalteredCons.getObj("Unstet").clone(cons));
-								}
-							}),
-
-					new Tuple5<String, String, Predicate<JSONObject>, Consumer<JSONObject>, BiConsumer<JSONObject, JSONObject>>(
-							"ElfischeSiedlungMitNichtmagischerProfession", "Profession",
-							hero -> {
-								if (!"Elfische Siedlung".equals(hero.getObj("Biografie").getString("Kultur"))) return false;
-								final JSONObject pros = generationState.getObj("Profession").getObj("Vorteile");
-								if (pros.containsKey("Vollzauberer") || pros.containsKey("Halbzauberer") || pros.containsKey("Viertelzauberer")) return false;
-								JSONObject additionalPros = null;
-								if (generationState.containsKey("Breitgefächerte Bildung")) {
-									additionalPros = generationState.getObj("Breitgefächerte Bildung").getObj("Vorteile");
-								} else if (generationState.containsKey("Veteran")) {
-									additionalPros = generationState.getObj("Veteran").getObj("Vorteile");
-								}
-								if (additionalPros != null && (additionalPros.containsKey("Vollzauberer") || additionalPros.containsKey("Halbzauberer")
-										|| additionalPros.containsKey("Viertelzauberer")))
-									return false;
-								return true;
-							},
-							profession -> {
-								final JSONArray spells = profession.getObj("Zauber").getArr("Wahl");
-								final JSONObject newChoices = generationState.getObj("Kultur").getObj("Zauber").getArr("Wahl").getObj(0).clone(spells);
-								newChoices.put("Punkte", 60);
-								newChoices.removeKey("Anzahl:Maximum");
-								newChoices.put("Hauszauber", 4);
-								newChoices.removeKey("Leittalente");
-								spells.add(newChoices);
-							},
-							(profession, _) -> {
-								final JSONArray spells = profession.getObj("Zauber").getArr("Wahl");
-								final JSONObject newChoices = ResourceManager.getResource("Kulturen").getObj("Elfische Siedlung").getObj("Zauber")
-										.getArr("Wahl")
-										.getObj(0).clone(spells);
-								newChoices.put("Punkte", 60);
-								newChoices.removeKey("Anzahl:Maximum");
-								newChoices.put("Hauszauber", 4);
-								newChoices.removeKey("Leittalente");
-								spells.remove(newChoices);
-							})));
+						final JSONArray choices = race.getObj("Nachteile").getArr("Wahl");
+						final JSONObject choice = new JSONObject(choices);
+						final JSONArray traits = new JSONArray(choice);
+						for (final String traitName : new String[] { "Eigenschaften", "Einfluss", "Form", "Heilung", "Hellsicht", "Herrschaft" }) {
+							final JSONObject trait = new JSONObject(traits);
+							trait.put("Auswahl", traitName);
+							traits.add(trait);
+						}
+						choices.remove(choice);
+						choices.remove(choice);
+					}),
+
+			new SpecialCase(
+					"TocamuyacSchamane", "Kultur", new String[] { "Kultur", "Profession" },
+					hero -> "Medizinmann".equals(hero.getObj("Biografie").getString("Profession"))
+							&& hero.getObj("Biografie").getArr("Profession:Modifikation").contains("Tocamuyac")
+							&& "Tocamuyac".equals(hero.getObj("Biografie").getString("Kultur")),
+					culture -> {
+						culture.getObj("Vorteile").removeKey("Richtungssinn");
+					},
+					(culture, unalteredCulture) -> {
+						final JSONObject unalteredPros = unalteredCulture.getObj("Vorteile");
+						if (unalteredPros.containsKey("Richtungssinn")) {
+							final JSONObject pros = culture.getObj("Vorteile");
+							pros.put("Richtungssinn", unalteredPros.getObj("Richtungssinn").clone(pros));
+						}
+					}),
+
+			new SpecialCase(
+					"SchamaneMitTotenangst", "Kultur", new String[] { "Kultur", "Profession" },
+					hero -> "Medizinmann".equals(hero.getObj("Biografie").getString("Profession"))
+							&& hero.getObj("Biografie").getArr("Profession:Modifikation").contains("Waldinsel-Utulus")
+							&& "Waldinsel-Utulus".equals(hero.getObj("Biografie").getString("Kultur"))
+							|| "Kasknus".equals(hero.getObj("Biografie").getString("Profession"))
+									&& "Nivesenstämme".equals(hero.getObj("Biografie").getString("Kultur"))
+							|| "Brenoch-Dûn".equals(hero.getObj("Biografie").getString("Profession"))
+									&& "Gjalskerland".equals(hero.getObj("Biografie").getString("Kultur")),
+					culture -> {
+						culture.getObj("Nachteile").removeKey("Totenangst");
+					},
+					(culture, unalteredCulture) -> {
+						final JSONObject unalteredCons = unalteredCulture.getObj("Nachteile");
+						if (unalteredCons.containsKey("Totenangst")) {
+							final JSONObject cons = culture.getObj("Nachteile");
+							cons.put("Totenangst", unalteredCons.getObj("Totenangst").clone(cons));
+						}
+					}),
+
+			new SpecialCase(
+					"DarnaSchamane", "Kultur", new String[] { "Kultur", "Profession" },
+					hero -> "Medizinmann".equals(hero.getObj("Biografie").getString("Profession"))
+							&& hero.getObj("Biografie").getArr("Profession:Modifikation").contains("Darna")
+							&& "Darna".equals(hero.getObj("Biografie").getString("Kultur")),
+					culture -> {
+						culture.getObj("Vorteile").removeKey("Viertelzauberer");
+					},
+					(culture, unalteredCulture) -> {
+						final JSONObject unalteredPros = unalteredCulture.getObj("Vorteile");
+						if (unalteredPros.containsKey("Viertelzauberer")) {
+							final JSONObject pros = culture.getObj("Vorteile");
+							pros.put("Viertelzauberer", unalteredPros.getObj("Viertelzauberer").clone(pros));
+						}
+					}),
+
+			new SpecialCase(
+					"GoblinSchamamin", "Rasse", new String[] { "Rasse", "Profession" },
+					hero -> "Goblin-Schamanin".equals(hero.getObj("Biografie").getString("Profession"))
+							&& "Goblin".equals(hero.getObj("Biografie").getString("Rasse")),
+					race -> {
+						race.getObj("Nachteile").removeKey("Unstet");
+					},
+					(race, unalteredRace) -> {
+						final JSONObject unalteredCons = unalteredRace.getObj("Nachteile");
+						if (unalteredCons.containsKey("Unstet")) {
+							final JSONObject cons = race.getObj("Nachteile");
+							cons.put("Unstet", unalteredCons.getObj("Unstet").clone(cons));
+						}
+					}),
+
+			new SpecialCase(
+					"ElfischeSiedlungMitNichtmagischerProfession", "Profession", new String[] { "Profession", "Kultur", "Breitgefächerte Bildung", "Veteran" },
+					hero -> {
+						if (!"Elfische Siedlung".equals(hero.getObj("Biografie").getString("Kultur"))) return false;
+						final JSONObject pros = generationState.getObj("Profession").getObj("Vorteile");
+						if (pros.containsKey("Vollzauberer") || pros.containsKey("Halbzauberer") || pros.containsKey("Viertelzauberer")) return false;
+						JSONObject additionalPros = null;
+						if (generationState.containsKey("Breitgefächerte Bildung")) {
+							additionalPros = generationState.getObj("Breitgefächerte Bildung").getObj("Vorteile");
+						} else if (generationState.containsKey("Veteran")) {
+							additionalPros = generationState.getObj("Veteran").getObj("Vorteile");
+						}
+						if (additionalPros != null && (additionalPros.containsKey("Vollzauberer") || additionalPros.containsKey("Halbzauberer")
+								|| additionalPros.containsKey("Viertelzauberer")))
+							return false;
+						return true;
+					},
+					profession -> {
+						final JSONArray spells = profession.getObj("Zauber").getArr("Wahl");
+						final JSONObject newChoices = generationState.getObj("Kultur").getObj("Zauber").getArr("Wahl").getObj(0).clone(spells);
+						newChoices.put("Punkte", 60);
+						newChoices.removeKey("Anzahl:Maximum");
+						newChoices.put("Hauszauber", 4);
+						newChoices.removeKey("Leittalente");
+						spells.add(newChoices);
+					},
+					(profession, _) -> {
+						final JSONArray spells = profession.getObj("Zauber").getArr("Wahl");
+						final JSONObject newChoices = ResourceManager.getResource("Kulturen").getObj("Elfische Siedlung").getObj("Zauber")
+								.getArr("Wahl")
+								.getObj(0).clone(spells);
+						newChoices.put("Punkte", 60);
+						newChoices.removeKey("Anzahl:Maximum");
+						newChoices.put("Hauszauber", 4);
+						newChoices.removeKey("Leittalente");
+						spells.remove(newChoices);
+					}));
 
 	public RKPSelectors(final JSONObject generationState, final TabPane tabPane, final VBox leftBox, final IntegerProperty gp) {
 		super(generationState, gp);
 
+		for (final SpecialCase specialCase : builtinSpecialCases) {
+			registerSpecialCase(specialCase);
+		}
+		final JSONObject dataSpecialCases = ResourceManager.getResource("data/Sonderfälle");
+		if (dataSpecialCases != null) {
+			for (final String name : dataSpecialCases.keySet()) {
+				registerSpecialCase(name, dataSpecialCases.getObj(name));
+			}
+		}
+
 		this.leftBox = leftBox;
 		raceSelector = new RKPSelector(this::updateRace, ResourceManager.getResource("data/Rassen"), t -> new RKP(RKP.Type.Race, t._1, t._2, t._3));
 		raceTab = addTab(tabPane, "Rasse", raceSelector.getControl());
@@ -349,14 +385,8 @@ public class RKPSelectors extends TabController {
 
 		male.selectedProperty().addListener((_, _, newV) -> {
 			generationState.getObj("Held").getObj("Biografie").put("Geschlecht", newV ? "männlich" : "weiblich");
-			raceSelector.refreshList();
-			cultureSelector.refreshList();
-			professionSelector.refreshList();
-			bgbVeteranSelector.refreshList();
-
-			updateRaceSuggestedOrPossible();
-			updateCultureSuggestedOrPossible();
-			updateProfessionSuggestedOrPossible();
+			pendingListRefresh = true;
+			scheduleValidityUpdate(true, true, true);
 		});
 
 		items.add(0, new Label("Rasse: "));
@@ -477,6 +507,128 @@ public class RKPSelectors extends TabController {
 		updateCanContinue();
 	}
 
+	private void applyBGBVeteran() {
+		final BGBVeteran type = bgbVeteranSelector.getType();
+		final RKP profession = bgbVeteranSelector.getCurrentChoice();
+		final List<RKP> variants = bgbVeteranSelector.getCurrentVariants();
+
+		if (profession == null) {
+			bgbVeteranLabel.setText("");
+			bgbVeteranProfessionLabel.setText("");
+			generationState.removeKey("Breitgefächerte Bildung");
+			generationState.removeKey("Veteran");
+		} else {
+			switch (type) {
+				case VETERAN:
+					final String variantString = RKPString(profession, variants, true);
+					bgbVeteranLabel.setText(variantString.length() != 0 ? "Veteran:" : "Veteran");
+					bgbVeteranProfessionLabel.setText(variantString);
+					generationState.put("Veteran", build(profession, variants, generationState));
+					break;
+				case BGB:
+					bgbVeteranLabel.setText("Breitgefächerte Bildung:");
+					bgbVeteranProfessionLabel.setText(RKPString(profession, variants, false));
+					generationState.put("Breitgefächerte Bildung", build(profession, variants, generationState));
+					break;
+				default:
+					bgbVeteranLabel.setText("");
+					bgbVeteranProfessionLabel.setText("");
+					generationState.removeKey("Breitgefächerte Bildung");
+					generationState.removeKey("Veteran");
+			}
+		}
+
+		final int cost = switch (type) {
+			case BGB -> ResourceManager.getResource("data/Vorteile").getObj("Breitgefächerte Bildung").getIntOrDefault("Kosten", 7);
+			case VETERAN -> ResourceManager.getResource("data/Vorteile").getObj("Veteran").getIntOrDefault("Kosten", 3);
+			default -> 0;
+		};
+
+		gp.set(gp.get() + bgbVeteranCost);
+		bgbVeteranCost = (type != BGBVeteran.NONE ? getCost(profession, variants) : 0) + cost;
+		gp.set(gp.get() - bgbVeteranCost);
+	}
+
+	private void applyCulture() {
+		final RKP culture = cultureSelector.getCurrentChoice();
+		final List<RKP> variants = cultureSelector.getCurrentVariants();
+		cultureLabel.setText(RKPString(culture, variants, false));
+
+		if (culture == null) {
+			generationState.removeKey("Kultur");
+		} else {
+			generationState.put("Kultur", build(culture, variants, generationState));
+		}
+
+		gp.set(gp.get() + cultureCost);
+		cultureCost = getCost(culture, variants);
+		gp.set(gp.get() - cultureCost);
+	}
+
+	private void applyPendingChoices() {
+		final boolean rkpChanged = pendingRace || pendingCulture;
+		if (pendingRace) {
+			pendingRace = false;
+			applyRace();
+		}
+		if (pendingCulture) {
+			pendingCulture = false;
+			applyCulture();
+		}
+		if (pendingProfession) {
+			pendingProfession = false;
+			applyProfession();
+		}
+		if (pendingBgbVeteran) {
+			pendingBgbVeteran = false;
+			applyBGBVeteran();
+		}
+		if (rkpChanged) {
+			bgbVeteranSelector.updateValid();
+		}
+	}
+
+	private void applyProfession() {
+		final RKP profession = professionSelector.getCurrentChoice();
+		final List<RKP> variants = professionSelector.getCurrentVariants();
+		professionLabel.setText(RKPString(profession, variants, false));
+
+		if (profession == null) {
+			generationState.removeKey("Profession");
+		} else {
+			generationState.put("Profession", build(profession, variants, generationState));
+		}
+
+		gp.set(gp.get() + professionCost);
+		professionCost = getCost(profession, variants);
+		gp.set(gp.get() - professionCost);
+	}
+
+	private void applyRace() {
+		final RKP race = raceSelector.getCurrentChoice();
+		final List<RKP> variants = raceSelector.getCurrentVariants();
+		raceLabel.setText(RKPString(race, variants, false));
+
+		if (race == null) {
+			generationState.removeKey("Rasse");
+		} else {
+			generationState.put("Rasse", build(race, variants, generationState));
+		}
+
+		gp.set(gp.get() + raceCost);
+		raceCost = getCost(race, variants);
+		gp.set(gp.get() - raceCost);
+	}
+
+	private JSONObject build(final RKP rkp, final List<RKP> variants, final JSONValue parent) {
+		final BiFunction<RKP, List<RKP>, JSONObject> builder = switch (rkp.type) {
+			case Race -> this::buildRace;
+			case Culture -> this::buildCulture;
+			case Profession -> this::buildProfession;
+		};
+		return buildCache.get(rkp, variants, male != null && !male.isSelected(), builder, parent);
+	}
+
 	private JSONObject buildCulture(final RKP culture, final List<RKP> variants) {
 		final JSONObject result = buildRKP(culture, variants);
 
@@ -548,7 +700,7 @@ public class RKPSelectors extends TabController {
 	}
 
 	private JSONObject buildRKP(final RKP source, final List<RKP> variants) {
-		final JSONObject result = new JSONObject(generationState);
+		final JSONObject result = new JSONObject(null);
 
 		result.put("Name", getName(source));
 		final JSONArray modifications = getModifications(result, source, variants);
@@ -556,7 +708,7 @@ public class RKPSelectors extends TabController {
 			result.put("Modifikation", modifications);
 		}
 
-		result.put("Kosten", getInt(source, "Kosten", 0));
+		result.put("Kosten", source.getCost(0));
 		RKPUtil.collectObj(source.data, "Voraussetzungen", result);
 		result.put("Sozialstatus:Maximum", getInt(source, "Sozialstatus:Maximum", 21));
 		RKPUtil.collectObj(source.data, "Eigenschaften", result);
@@ -597,7 +749,7 @@ public class RKPSelectors extends TabController {
 		RKPUtil.collectObj(source.data, "Ausrüstung", result);
 
 		for (final RKP variant : variants) {
-			result.put("Kosten", result.getInt("Kosten") + getInt(variant, "Kosten", 0));
+			result.put("Kosten", result.getInt("Kosten") + variant.getCost(0));
 			RKPUtil.collectVariantObj(variant.data, "Voraussetzungen", result);
 			if (variant.data.containsKey("Sozialstatus:Maximum")) {
 				result.put("Sozialstatus:Maximum", variant.data.getInt("Sozialstatus:Maximum"));
@@ -635,45 +787,8 @@ public class RKPSelectors extends TabController {
 		return result;
 	}
 
-	private void collectBasicValues(final JSONObject hero, final int soGP) {
-		final JSONObject basicValues = hero.getObj("Basiswerte");
-
-		for (final String current : new String[] { "Rasse", "Kultur", "Profession" }) {
-			final JSONObject currentValues = generationState.getObj(current).getObjOrDefault("Basiswerte", null);
-			if (currentValues != null) {
-				for (final String valueName : currentValues.keySet()) {
-					if ("Wahl".equals(valueName)) {
-						continue;
-					}
-					final JSONObject value = basicValues.getObj(valueName);
-					final String key = basicValueKey(valueName);
-					value.put(key, value.getIntOrDefault(key, 0) + currentValues.getInt(valueName));
-				}
-			}
-		}
-
-		if (generationState.containsKey("Breitgefächerte Bildung")) {
-			final JSONObject currentValues = generationState.getObj("Breitgefächerte Bildung").getObjOrDefault("Basiswerte", null);
-			if (currentValues != null) {
-				for (final String valueName : new String[] { "Lebensenergie", "Ausdauer", "Initiative-Basis", "Magieresistenz" }) {
-					final JSONObject value = basicValues.getObj(valueName);
-					final String key = basicValueKey(valueName);
-					value.put(key, value.getIntOrDefault(key, 0) + (currentValues.getIntOrDefault(valueName, 0) + 1) / 2);
-				}
-				final JSONObject value = basicValues.getObj("Sozialstatus");
-				final String key = basicValueKey("Sozialstatus");
-				value.put(key, Math.max(value.getIntOrDefault(key, 0), currentValues.getIntOrDefault("Sozialstatus", 0)));
-			}
-		} else if (generationState.containsKey("Veteran")) {
-			final JSONObject currentValues = generationState.getObj("Veteran").getObjOrDefault("Basiswerte", null);
-			if (currentValues != null) {
-				for (final String valueName : new String[] { "Lebensenergie", "Ausdauer", "Initiative-Basis", "Magieresistenz" }) {
-					final JSONObject value = basicValues.getObj(valueName);
-					final String key = basicValueKey(valueName);
-					value.put(key, value.getIntOrDefault(key, 0) + (currentValues.getIntOrDefault(valueName, 0) + 1) / 2);
-				}
-			}
-		}
+	private void collectBasicValues(final JSONObject basicValues, final Map<String, Integer> values, final int soGP) {
+		layers.writeBasicValues(basicValues, values);
 
 		if (soGP != 0) {
 			final JSONObject so = basicValues.getObj("Sozialstatus");
@@ -683,53 +798,21 @@ public class RKPSelectors extends TabController {
 		}
 	}
 
-	private void collectEquipment(final JSONObject hero) {
-		final JSONObject posessions = hero.getObj("Besitz");
-
+	private void collectEquipment(final JSONObject posessions, final JSONObject items) {
 		final JSONArray inventory = new JSONArray(posessions);
 		posessions.put("Ausrüstung", inventory);
-
-		final JSONObject items = ResourceManager.getResource("data/Ausruestung");
-
-		for (final String current : new String[] { "Rasse", "Kultur", "Profession" }) {
-			final JSONObject currentInventory = generationState.getObj(current).getObjOrDefault("Ausrüstung", null);
-			if (currentInventory != null) {
-				for (final String name : currentInventory.keySet()) {
-					if ("Wahl".equals(name)) {
-						continue;
-					}
-					final JSONObject currentItem = currentInventory.getObj(name);
-					JSONObject item;
-					if (items.containsKey(name)) {
-						item = items.getObj(name).clone(inventory);
-						item.addAll(currentItem, true);
-					} else {
-						item = currentItem.clone(inventory);
-					}
-					if (!item.containsKey("Name")) {
-						item.put("Name", name);
-					}
-
-					if (item.containsKey("Bannschwert") && item.getObj("Bannschwert").getObj("Rituale").containsKey("Bannschwert")) {
-						item.removeKey("Bruchfaktor");
-						if (item.containsKey("Nahkampfwaffe")) {
-							item.getObj("Nahkampfwaffe").removeKey("Bruchfaktor");
-						}
-					}
-
-					inventory.add(item);
-				}
-			}
-		}
+		layers.writeEquipment(inventory, items);
 	}
 
-	private void collectProsOrCons(String category, final JSONObject hero) {
+	private void collectProsOrCons(String category, final JSONObject hero, final int from) {
 		JSONObject prosOrCons = hero.getObj(category);
 
-		for (final String currentType : new String[] { "Rasse", "Kultur", "Profession", "Breitgefächerte Bildung", "Veteran" }) {
+		for (int typeIndex = from; typeIndex < HeroLayers.proConTypes.length; ++typeIndex) {
+			final String currentType = HeroLayers.proConTypes[typeIndex];
 			if (!generationState.containsKey(currentType) || "Veteran".equals(currentType) && !"Sonderfertigkeiten".equals(category)) {
 				continue;
 			}
+			final List<Runnable> undo = layers.getProConUndo(typeIndex);
 			final JSONObject currentCategory = generationState.getObj(currentType).getObjOrDefault(category, null);
 			boolean onlyNew = false;
 			if ("Sonderfertigkeiten".equals(category)) {
@@ -768,28 +851,42 @@ public class RKPSelectors extends TabController {
 												continue;
 											}
 										}
-										current.put("Verbilligungen", current.getIntOrDefault("Verbilligungen", 1) + 1);
+										add(undo, match, "Verbilligungen", 1, 1);
 									} else if (proOrCon.getBoolOrDefault("Abgestuft", false)) {
-										HeroUtil.unapplyEffect(hero, name, proOrCon, match);
-										match.put("Stufe", match.getIntOrDefault("Stufe", 0) + currentCategory.getObj(name).getIntOrDefault("Stufe", 0));
-										HeroUtil.applyEffect(hero, name, proOrCon, match);
+										unapplyEffect(undo, hero, name, proOrCon, match);
+										add(undo, match, "Stufe", currentCategory.getObj(name).getIntOrDefault("Stufe", 0), 0);
+										applyEffect(undo, hero, name, proOrCon, match);
 									} else {
-										prosOrCons.put("temporary:Pool",
-												prosOrCons.getIntOrDefault("temporary:Pool", 0) + proOrCon.getIntOrDefault("Kosten", 0));
+										add(undo, prosOrCons, "temporary:Pool", proOrCon.getIntOrDefault("Kosten", 0), 0);
 									}
 								} else {
-									proOrConArray.add(current.clone(proOrConArray));
+									final JSONObject added = current.clone(proOrConArray);
+									proOrConArray.add(added);
+									undo.add(() -> removeIdentical(proOrConArray, added));
 									if (!"Verbilligte Sonderfertigkeiten".equals(category)) {
-										HeroUtil.applyEffect(hero, name, proOrCon, current);
+										applyEffect(undo, hero, name, proOrCon, current);
 									}
 								}
 							}
 						} else {
-							prosOrCons.put(name, currentCategory.getArr(name).clone(prosOrCons));
-							final JSONArray current = prosOrCons.getArr(name);
+							final JSONArray current = currentCategory.getArr(name).clone(prosOrCons);
+							final JSONObject target = prosOrCons;
+							final List<Object> added = new ArrayList<>(current.size());
+							for (int i = 0; i < current.size(); ++i) {
+								added.add(current.getUnsafe(i));
+							}
+							target.put(name, current);
+							undo.add(() -> {
+								for (final Object entry : added) {
+									removeIdentical(current, entry);
+								}
+								if (current.size() == 0 && target.getUnsafe(name) == current) {
+									target.removeKey(name);
+								}
+							});
 							if (!"Verbilligte Sonderfertigkeiten".equals(category)) {
 								for (int i = 0; i < current.size(); ++i) {
-									HeroUtil.applyEffect(hero, name, proOrCon, current.getObj(i));
+									applyEffect(undo, hero, name, proOrCon, current.getObj(i));
 								}
 							}
 						}
@@ -797,45 +894,33 @@ public class RKPSelectors extends TabController {
 						switch (name) {
 							case "Vollzauberer":
 								if (prosOrCons.containsKey("Vollzauberer")) {
-									gp.set(gp.get() + (int) Math.round(proOrCon.getIntOrDefault("Kosten", 0) * 0.3));
+									addGP(undo, (int) Math.round(proOrCon.getIntOrDefault("Kosten", 0) * 0.3));
 									break;
 								} else if (prosOrCons.containsKey("Halbzauberer")) {
-									gp.set(gp.get() + (int) Math
-											.round(ResourceManager.getResource("data/Vorteile").getObj("Halbzauberer").getIntOrDefault("Kosten", 0) * 0.3));
-									HeroUtil.unapplyEffect(hero, "Halbzauberer", ResourceManager.getResource("data/Vorteile").getObj("Halbzauberer"),
-											prosOrCons.getObj("Halbzauberer"));
-									prosOrCons.removeKey("Halbzauberer");
+									replaceMagician(undo, hero, prosOrCons, "Halbzauberer");
 								} else if (prosOrCons.containsKey("Viertelzauberer")) {
-									gp.set(gp.get() + (int) Math
-											.round(ResourceManager.getResource("data/Vorteile").getObj("Viertelzauberer").getIntOrDefault("Kosten", 0) * 0.3));
-									HeroUtil.unapplyEffect(hero, "Viertelzauberer", ResourceManager.getResource("data/Vorteile").getObj("Viertelzauberer"),
-											prosOrCons.getObj("Viertelzauberer"));
-									prosOrCons.removeKey("Viertelzauberer");
+									replaceMagician(undo, hero, prosOrCons, "Viertelzauberer");
 								}
-								prosOrCons.put(name, currentCategory.getObj(name).clone(prosOrCons));
-								HeroUtil.applyEffect(hero, name, proOrCon, prosOrCons.getObj(name));
+								put(undo, prosOrCons, name, currentCategory.getObj(name).clone(prosOrCons));
+								applyEffect(undo, hero, name, proOrCon, prosOrCons.getObj(name));
 								break;
 							case "Halbzauberer":
 								if (prosOrCons.containsKey("Vollzauberer") || prosOrCons.containsKey("Halbzauberer")) {
-									gp.set(gp.get() + (int) Math.round(proOrCon.getIntOrDefault("Kosten", 0) * 0.3));
+									addGP(undo, (int) Math.round(proOrCon.getIntOrDefault("Kosten", 0) * 0.3));
 									break;
 								} else if (prosOrCons.containsKey("Viertelzauberer")) {
-									gp.set(gp.get() + (int) Math
-											.round(ResourceManager.getResource("data/Vorteile").getObj("Viertelzauberer").getIntOrDefault("Kosten", 0) * 0.3));
-									HeroUtil.unapplyEffect(hero, "Viertelzauberer", ResourceManager.getResource("data/Vorteile").getObj("Viertelzauberer"),
-											prosOrCons.getObj("Viertelzauberer"));
-									prosOrCons.removeKey("Viertelzauberer");
+									replaceMagician(undo, hero, prosOrCons, "Viertelzauberer");
 								}
-								prosOrCons.put(name, currentCategory.getObj(name).clone(prosOrCons));
-								HeroUtil.applyEffect(hero, name, proOrCon, prosOrCons.getObj(name));
+								put(undo, prosOrCons, name, currentCategory.getObj(name).clone(prosOrCons));
+								applyEffect(undo, hero, name, proOrCon, prosOrCons.getObj(name));
 								break;
 							case "Viertelzauberer":
 								if (prosOrCons.containsKey("Vollzauberer") || prosOrCons.containsKey("Halbzauberer")
 										|| prosOrCons.containsKey("Viertelzauberer")) {
-									gp.set(gp.get() + (int) Math.round(proOrCon.getIntOrDefault("Kosten", 0) * 0.3));
+									addGP(undo, (int) Math.round(proOrCon.getIntOrDefault("Kosten", 0) * 0.3));
 								} else {
-									prosOrCons.put(name, currentCategory.getObj(name).clone(prosOrCons));
-									HeroUtil.applyEffect(hero, name, proOrCon, prosOrCons.getObj(name));
+									put(undo, prosOrCons, name, currentCategory.getObj(name).clone(prosOrCons));
+									applyEffect(undo, hero, name, proOrCon, prosOrCons.getObj(name));
 								}
 								break;
 							default:
@@ -843,21 +928,20 @@ public class RKPSelectors extends TabController {
 									if ("Verbilligte Sonderfertigkeiten".equals(category)) {
 										if (!onlyNew || !generationState.getObj("Profession").getObj("Sonderfertigkeiten").containsKey(name)) {
 											final JSONObject skill = prosOrCons.getObj(name);
-											skill.put("Verbilligungen", skill.getIntOrDefault("Verbilligungen", 1) + 1);
+											add(undo, skill, "Verbilligungen", 1, 1);
 										}
 									} else if (proOrCon.getBoolOrDefault("Abgestuft", false)) {
 										final JSONObject actual = prosOrCons.getObj(name);
-										HeroUtil.unapplyEffect(hero, name, proOrCon, actual);
-										actual.put("Stufe", actual.getIntOrDefault("Stufe", 0) + currentCategory.getObj(name).getIntOrDefault("Stufe", 0));
-										HeroUtil.applyEffect(hero, name, proOrCon, actual);
+										unapplyEffect(undo, hero, name, proOrCon, actual);
+										add(undo, actual, "Stufe", currentCategory.getObj(name).getIntOrDefault("Stufe", 0), 0);
+										applyEffect(undo, hero, name, proOrCon, actual);
 									} else {
-										prosOrCons.put("temporary:Pool",
-												prosOrCons.getIntOrDefault("temporary:Pool", 0) + proOrCon.getIntOrDefault("Kosten", 0));
+										add(undo, prosOrCons, "temporary:Pool", proOrCon.getIntOrDefault("Kosten", 0), 0);
 									}
 								} else {
-									prosOrCons.put(name, currentCategory.getObj(name).clone(prosOrCons));
+									put(undo, prosOrCons, name, currentCategory.getObj(name).clone(prosOrCons));
 									if (!"Verbilligte Sonderfertigkeiten".equals(category)) {
-										HeroUtil.applyEffect(hero, name, proOrCon, prosOrCons.getObj(name));
+										applyEffect(undo, hero, name, proOrCon, prosOrCons.getObj(name));
 									}
 								}
 								break;
@@ -868,198 +952,84 @@ public class RKPSelectors extends TabController {
 		}
 	}
 
-	private void collectSpells(final JSONObject hero) {
-		final Map<Tuple3<String, String, Boolean>, List<Integer>> spellList = new HashMap<>();
-		for (final String current : new String[] { "Rasse", "Kultur", "Profession" }) {
-			final JSONObject currentPrimarySpells = generationState.getObj(current).getObjOrDefault("Hauszauber", null);
-			if (currentPrimarySpells != null) {
-				for (final String spellName : currentPrimarySpells.keySet()) {
-					if ("Wahl".equals(spellName)) {
-						continue;
-					}
-					final JSONObject currentSpell = HeroUtil.findTalent(spellName)._1;
-					final JSONObject spell = currentPrimarySpells.getObj(spellName);
-					for (final String representation : spell.keySet()) {
-						final Tuple3<String, String, Boolean> id = new Tuple3<>(spellName, representation, true);
-						if (currentSpell.containsKey("Auswahl") || currentSpell.containsKey("Freitext")) {
-							final List<Integer> old = spellList.getOrDefault(id, new ArrayList<>());
-							final JSONArray modifications = spell.getArr(representation);
-							spellList.put(id, old);
-							for (int i = 0; i < modifications.size(); ++i) {
-								old.add(modifications.getInt(i));
-							}
-						} else {
-							List<Integer> old = spellList.getOrDefault(id, null);
-							if (old == null) {
-								final Tuple3<String, String, Boolean> nid = new Tuple3<>(spellName, representation, false);
-								old = spellList.getOrDefault(nid, Collections.singletonList(0));
-								spellList.remove(nid);
-							}
-							spellList.put(id, Collections.singletonList(old.get(0) + spell.getInt(representation)));
-						}
-					}
-				}
-			}
-			final JSONObject currentSpells = generationState.getObj(current).getObjOrDefault("Zauber", null);
-			if (currentSpells != null) {
-				for (final String spellName : currentSpells.keySet()) {
-					if ("Wahl".equals(spellName)) {
-						continue;
-					}
-					final JSONObject currentSpell = HeroUtil.findTalent(spellName)._1;
-					final JSONObject spell = currentSpells.getObj(spellName);
-					for (final String representation : spell.keySet()) {
-						Tuple3<String, String, Boolean> id = new Tuple3<>(spellName, representation, false);
-						if (currentSpell.containsKey("Auswahl") || currentSpell.containsKey("Freitext")) {
-							final List<Integer> old = spellList.getOrDefault(id, new ArrayList<>());
-							final JSONArray modifications = spell.getArr(representation);
-							spellList.put(id, old);
-							for (int i = 0; i < modifications.size(); ++i) {
-								old.add(modifications.getInt(i));
-							}
-						} else {
-							List<Integer> old = spellList.getOrDefault(id, null);
-							if (old == null) {
-								final Tuple3<String, String, Boolean> nid = new Tuple3<>(spellName, representation, true);
-								old = spellList.getOrDefault(nid, null);
-								if (old != null) {
-									id = nid;
-								} else {
-									old = Collections.singletonList(0);
-								}
-							}
-							spellList.put(id, Collections.singletonList(old.get(0) + spell.getInt(representation)));
-						}
-					}
-				}
-			}
-		}
-
-		final JSONObject spells = hero.getObj("Zauber");
-
-		for (final Tuple3<String, String, Boolean> id : spellList.keySet()) {
-			final JSONObject spell = spells.getObj(id._1);
-			final JSONObject currentSpell = HeroUtil.findTalent(id._1)._1;
-			if (currentSpell.containsKey("Auswahl") || currentSpell.containsKey("Freitext")) {
-				final JSONArray rep = spell.getArr(id._2);
-				final List<Integer> modifications = spellList.get(id);
-				for (final Integer mod : modifications) {
-					final JSONObject current = new JSONObject(rep);
-					current.put("ZfW", mod);
-					if (id._3) {
-						current.put("Hauszauber", true);
-					}
-					rep.add(current);
-				}
+	private static void add(final List<Runnable> undo, final JSONObject target, final String key, final int delta, final int base) {
+		final boolean existed = target.containsKey(key);
+		target.put(key, target.getIntOrDefault(key, base) + delta);
+		undo.add(() -> {
+			final int value = target.getIntOrDefault(key, base) - delta;
+			if (!existed && value == base) {
+				target.removeKey(key);
 			} else {
-				final JSONObject rep = new JSONObject(spell);
-				rep.put("ZfW", spellList.get(id).get(0));
-				if (id._3) {
-					rep.put("Hauszauber", true);
-				}
-				spell.put(id._2, rep);
+				target.put(key, value);
 			}
-		}
+		});
 	}
 
-	private void collectTalents(final JSONObject hero) {
-		final JSONObject actualTalents = hero.getObj("Talente");
+	private void addGP(final List<Runnable> undo, final int value) {
+		gp.set(gp.get() + value);
+		undo.add(() -> gp.set(gp.get() - value));
+	}
 
-		final Map<String, List<Integer>> talentList = new HashMap<>();
-		for (final String current : new String[] { "Rasse", "Kultur", "Profession" }) {
-			final JSONObject currentTalents = generationState.getObj(current).getObjOrDefault("Talente", null);
-			final JSONArray primaryTalents = generationState.getObj(current).getArrOrDefault("Leittalente", null);
-			if (currentTalents != null) {
-				for (final String talentName : currentTalents.keySet()) {
-					if ("Wahl".equals(talentName) || "Muttersprache".equals(talentName) || "Muttersprache:Schrift".equals(talentName)) {
-						continue;
-					}
-					final Tuple<JSONObject, String> talentAndGroup = HeroUtil.findTalent(talentName);
-					if (talentAndGroup._1.containsKey("Auswahl") || talentAndGroup._1.containsKey("Freitext")) {
-						talentList.put(talentName, talentList.getOrDefault(talentName, new ArrayList<>()));
-						final JSONArray modifications = currentTalents.getArr(talentName);
-						for (int i = 0; i < modifications.size(); ++i) {
-							talentList.get(talentName).add(modifications.getInt(i));
-						}
-					} else {
-						talentList.put(talentName, Collections
-								.singletonList(talentList.getOrDefault(talentName, Collections.singletonList(0)).get(0) + currentTalents.getInt(talentName)));
-						if (primaryTalents != null && primaryTalents.contains(talentName)) {
-							final JSONObject talent = actualTalents.getObj(talentAndGroup._2).getObj(talentName);
-							talent.put("Leittalent", true);
-							talent.put("temporary:RKPPrimaryTalent", true);
-						}
-					}
-				}
-			}
-		}
+	private static void applyEffect(final List<Runnable> undo, final JSONObject hero, final String name, final JSONObject proOrCon, final JSONObject actual) {
+		HeroUtil.applyEffect(hero, name, proOrCon, actual);
+		undo.add(() -> HeroUtil.unapplyEffect(hero, name, proOrCon, actual));
+	}
 
-		for (final String talentName : talentList.keySet()) {
-			final Tuple<JSONObject, String> talentAndGroup = HeroUtil.findTalent(talentName);
-			final String groupName = talentAndGroup._2;
-			if (groupName == null) {
-				continue;
+	private static void put(final List<Runnable> undo, final JSONObject target, final String key, final JSONObject value) {
+		target.put(key, value);
+		undo.add(() -> {
+			if (target.getUnsafe(key) == value) {
+				target.removeKey(key);
 			}
-			if (talentAndGroup._1.containsKey("Auswahl") || talentAndGroup._1.containsKey("Freitext")) {
-				final JSONArray talent = actualTalents.getObj(groupName).getArr(talentName);
-				for (final int mod : talentList.get(talentName)) {
-					final JSONObject currentTalent = new JSONObject(talent);
-					currentTalent.put("TaW", mod);
-					talent.add(currentTalent);
-				}
-			} else {
-				final JSONObject talent = actualTalents.getObj(groupName).getObj(talentName);
-				final int mod = talentList.get(talentName).get(0);
-				talent.put("TaW", mod);
-				if ("Nahkampftalente".equals(groupName) || "Fernkampftalente".equals(groupName)) {
-					if (talentAndGroup._1.getBoolOrDefault("NurAT", false) || talentAndGroup._1.getBoolOrDefault("FK", false)) {
-						talent.put("AT", mod);
-					} else {
-						talent.put("AT", (mod + 1) / 2);
-						talent.put("PA", mod / 2);
-					}
-				}
-			}
-		}
+		});
+	}
 
-		final JSONObject languages = actualTalents.getObj("Sprachen und Schriften");
-		for (final String current : new String[] { "Rasse", "Kultur", "Profession" }) {
-			final JSONObject actualLanguages = generationState.getObj(current).getObj("Sprachen");
-			if (actualLanguages == null) {
-				continue;
-			}
-			for (final String type : new String[] { "Muttersprache", "Zweitsprache", "Lehrsprache" }) {
-				final JSONArray choices = actualLanguages.getArrOrDefault(type, null);
-				if (choices != null) {
-					for (int i = 0; i < choices.size(); ++i) {
-						final JSONArray choice = choices.getArr(i);
-						if (choice != null && choice.size() == 1) {
-							final String name = choice.getString(0);
-							final JSONObject actualLanguage = languages.getObj(name);
-							actualLanguage.put(type, true);
-						}
-					}
-				}
+	private static void removeIdentical(final JSONArray values, final Object value) {
+		for (int i = values.size() - 1; i >= 0; --i) {
+			if (values.getUnsafe(i) == value) {
+				values.removeAt(i);
+				return;
 			}
 		}
+	}
 
-		final JSONObject talents = ResourceManager.getResource("data/Talente");
-		for (final String groupName : talents.keySet()) {
-			final JSONObject talentGroup = talents.getObj(groupName);
-			for (final String talentName : talentGroup.keySet()) {
-				final JSONObject talent = talentGroup.getObj(talentName);
-				if (talent.getBoolOrDefault("Basis", false)) {
-					final JSONObject actualTalent = actualTalents.getObj(groupName).getObj(talentName);
-					if (!actualTalent.containsKey("TaW")) {
-						actualTalent.put("TaW", 0);
-					}
-				}
+	private void replaceMagician(final List<Runnable> undo, final JSONObject hero, final JSONObject pros, final String name) {
+		final JSONObject pro = ResourceManager.getResource("data/Vorteile").getObj(name);
+		addGP(undo, (int) Math.round(pro.getIntOrDefault("Kosten", 0) * 0.3));
+		final JSONObject actual = pros.getObj(name);
+		unapplyEffect(undo, hero, name, pro, actual);
+		pros.removeKey(name);
+		undo.add(() -> pros.put(name, actual));
+	}
+
+	private static void unapplyEffect(final List<Runnable> undo, final JSONObject hero, final String name, final JSONObject proOrCon,
+			final JSONObject actual) {
+		HeroUtil.unapplyEffect(hero, name, proOrCon, actual);
+		undo.add(() -> HeroUtil.applyEffect(hero, name, proOrCon, actual));
+	}
+
+	private void collectSpells(final JSONObject spells) {
+		layers.writeSpells(spells);
+	}
+
+	private void collectTalents(final JSONObject actualTalents) {
+		layers.writeTalents(actualTalents);
+	}
+
+	private void seedBasisTalents(final JSONObject hero) {
+		final JSONObject actualTalents = hero.getObj("Talente");
+		for (final TalentCatalog.Entry talent : TalentCatalog.getInstance().getBasisTalents()) {
+			final JSONObject actualTalent = actualTalents.getObj(talent.group).getObj(talent.name);
+			if (!actualTalent.containsKey("TaW")) {
+				actualTalent.put("TaW", 0);
 			}
 		}
 	}
 
 	@Override
 	public void deactivate(final boolean forward) {
+		applyPendingChoices();
+
 		raceTab.setDisable(true);
 		cultureTab.setDisable(true);
 		professionTab.setDisable(true);
@@ -1114,30 +1084,59 @@ public class RKPSelectors extends TabController {
 		}
 
 		if (changedRace || changedCulture || changedProfession || changedBgbVeteran) {
-			final JSONObject basicValues = hero.getObj("Basiswerte");
-			final int soGP = basicValues.getObj("Sozialstatus").getIntOrDefault("temporary:GP", 0);
-			basicValues.clear();
-			hero.getObj("Vorteile").clear();
-			hero.getObj("Nachteile").clear();
-			hero.getObj("Sonderfertigkeiten").clear();
-			hero.getObj("Verbilligte Sonderfertigkeiten").clear();
-			hero.getObj("Talente").clear();
-			hero.removeKey("Zauber");
-			hero.removeKey("Besitz");
-
 			handleSpecialCases(hero);
+			layers.update(generationState);
 
-			collectBasicValues(hero, soGP);
+			if (layers.isWritten(hero)) {
+				final int from = layers.firstChangedProsAndCons(generationState);
+				layers.undoProsAndCons(from);
 
-			collectProsOrCons("Vorteile", hero);
-			collectProsOrCons("Nachteile", hero);
-			collectProsOrCons("Sonderfertigkeiten", hero);
-			collectProsOrCons("Verbilligte Sonderfertigkeiten", hero);
+				layers.updateBasicValues(hero.getObj("Basiswerte"), getBasicValues());
+				layers.updateTalents(hero.getObj("Talente"));
+				layers.updateSpells(hero.getObj("Zauber"));
+				layers.updateEquipment(hero.getObj("Besitz").getArr("Ausrüstung"), ResourceManager.getResource("data/Ausruestung"));
 
-			collectTalents(hero);
-			collectSpells(hero);
-
-			collectEquipment(hero);
+				collectProsOrCons("Vorteile", hero, from);
+				collectProsOrCons("Nachteile", hero, from);
+				collectProsOrCons("Sonderfertigkeiten", hero, from);
+				collectProsOrCons("Verbilligte Sonderfertigkeiten", hero, from);
+			} else {
+				final JSONObject basicValues = hero.getObj("Basiswerte");
+				final int soGP = basicValues.getObj("Sozialstatus").getIntOrDefault("temporary:GP", 0);
+				basicValues.clear();
+				hero.getObj("Vorteile").clear();
+				hero.getObj("Nachteile").clear();
+				hero.getObj("Sonderfertigkeiten").clear();
+				hero.getObj("Verbilligte Sonderfertigkeiten").clear();
+				hero.getObj("Talente").clear();
+				hero.removeKey("Zauber");
+				hero.removeKey("Besitz");
+
+				layers.clearProsAndCons();
+
+				final Map<String, Integer> values = getBasicValues();
+				final JSONObject items = ResourceManager.getResource("data/Ausruestung");
+				final CollectionPipeline pipeline = new CollectionPipeline(hero, parallelCollection);
+				pipeline.add("Basiswerte", fragment -> collectBasicValues(fragment, values, soGP));
+				pipeline.add("Talente", this::collectTalents);
+				pipeline.add("Zauber", this::collectSpells);
+				pipeline.add("Besitz", fragment -> collectEquipment(fragment, items));
+				pipeline.compute();
+
+				pipeline.merge("Basiswerte");
+
+				collectProsOrCons("Vorteile", hero, 0);
+				collectProsOrCons("Nachteile", hero, 0);
+				collectProsOrCons("Sonderfertigkeiten", hero, 0);
+				collectProsOrCons("Verbilligte Sonderfertigkeiten", hero, 0);
+
+				pipeline.merge("Talente");
+				seedBasisTalents(hero);
+				pipeline.merge("Zauber");
+
+				pipeline.merge("Besitz");
+			}
+			layers.written(hero, generationState);
 		}
 
 		final JSONObject pros = hero.getObj("Vorteile");
@@ -1175,6 +1174,27 @@ public class RKPSelectors extends TabController {
 		}
 	}
 
+	private Map<String, Integer> getBasicValues() {
+		final Map<String, Integer> values = layers.getBasicValues();
+		if (generationState.containsKey("Breitgefächerte Bildung")) {
+			final JSONObject currentValues = generationState.getObj("Breitgefächerte Bildung").getObjOrDefault("Basiswerte", null);
+			if (currentValues != null) {
+				for (final String valueName : new String[] { "Lebensenergie", "Ausdauer", "Initiative-Basis", "Magieresistenz" }) {
+					values.merge(valueName, (currentValues.getIntOrDefault(valueName, 0) + 1) / 2, Integer::sum);
+				}
+				values.put("Sozialstatus", Math.max(values.getOrDefault("Sozialstatus", 0), currentValues.getIntOrDefault("Sozialstatus", 0)));
+			}
+		} else if (generationState.containsKey("Veteran")) {
+			final JSONObject currentValues = generationState.getObj("Veteran").getObjOrDefault("Basiswerte", null);
+			if (currentValues != null) {
+				for (final String valueName : new String[] { "Lebensenergie", "Ausdauer", "Initiative-Basis", "Magieresistenz" }) {
+					values.merge(valueName, (currentValues.getIntOrDefault(valueName, 0) + 1) / 2, Integer::sum);
+				}
+			}
+		}
+		return values;
+	}
+
 	private int getCost(final RKP choice, final List<RKP> variants) {
 		if (choice == null) return 0;
 		int result = choice.getCost(0);
@@ -1196,194 +1216,50 @@ public class RKPSelectors extends TabController {
 	}
 
 	private void handleSpecialCases(final JSONObject hero) {
-		final JSONObject unalteredRKP = new JSONObject(null);
-		unalteredRKP.put("Rasse", buildRace(raceSelector.getCurrentChoice(), raceSelector.getCurrentVariants()).clone(unalteredRKP));
-		unalteredRKP.put("Kultur", buildRace(cultureSelector.getCurrentChoice(), cultureSelector.getCurrentVariants()).clone(unalteredRKP));
-		unalteredRKP.put("Profession", buildRace(professionSelector.getCurrentChoice(), professionSelector.getCurrentVariants()).clone(unalteredRKP));
-
-		for (final Tuple5<String, String, Predicate<JSONObject>, Consumer<JSONObject>, BiConsumer<JSONObject, JSONObject>> specialCase : specialCases) {
-			final String name = "temporary:Spezialfall" + specialCase._1;
-			final String type = specialCase._2;
-			final Predicate<JSONObject> applicable = specialCase._3;
-			final Consumer<JSONObject> apply = specialCase._4;
-			final BiConsumer<JSONObject, JSONObject> unapply = specialCase._5;
-
-			final JSONObject modified = generationState.getObj(type);
-			if (applicable.test(hero)) {
-				if (!modified.getBoolOrDefault(name, false)) {
-					apply.accept(modified);
-					modified.put(name, true);
-				}
-			} else {
-				if (modified.getBoolOrDefault(name, false)) {
-					unapply.accept(modified, unalteredRKP.getObj(type));
-					modified.removeKey(name);
-				}
-			}
-		}
-	}
-
-	private boolean isPossibleProfession(final RKP race, final RKP culture, final List<RKP> cultureVariants, final RKP profession) {
-		if (profession == null) return true;
-
-		if (race != null) {
-			RKP current = profession;
-
-			while (current != null) {
-				final JSONObject requirements = current.data.getObjOrDefault("Voraussetzungen", new JSONObject(null)).getObjOrDefault("Rassen", null);
-				if (requirements != null) {
-					final JSONObject requiredRaces = requirements.getObjOrDefault("Muss", requirements.getObjOrDefault("Wahl", null));
-					if (requiredRaces != null) {
-						boolean found = false;
-						RKP currentRace = race;
-						while (currentRace != null) {
-							if (requiredRaces.containsKey(currentRace.name)) {
-								found = true;
-								break;
-							}
-							currentRace = currentRace.parent;
-						}
-						if (!found) return false;
-					}
-				}
-				current = current.parent;
+		for (final Map.Entry<String, List<SpecialCase>> entry : specialCases.entrySet()) {
+			final String type = entry.getKey();
+			final JSONObject modified = generationState.getObjOrDefault(type, null);
+			if (modified == null) {
+				continue;
 			}
-		}
-
-		if (culture != null) {
-			RKP current = profession;
-			RKP currentCulture = culture;
-			JSONArray suggested = culture.getSuggestedOrPossible()._1;
-			JSONArray possible = culture.getSuggestedOrPossible()._2;
+			JSONObject unaltered = null;
 
-			while (currentCulture.parent != null) {
-				currentCulture = currentCulture.parent;
-				if (suggested == null) {
-					suggested = currentCulture.getSuggestedOrPossible()._1;
+			for (final SpecialCase specialCase : entry.getValue()) {
+				if (!specialCase.inputsChanged(generationState)) {
+					continue;
 				}
-				if (possible == null) {
-					possible = currentCulture.getSuggestedOrPossible()._2;
-				}
-			}
-			if (cultureVariants != null) {
-				for (final RKP variant : cultureVariants) {
-					final Tuple<JSONArray, JSONArray> variantSuggestedOrPossible = variant.getSuggestedOrPossible();
-					if (variantSuggestedOrPossible._1 != null) {
-						suggested = variantSuggestedOrPossible._1;
+				final String name = "temporary:Spezialfall" + specialCase.name;
+				if (specialCase.applicable.test(hero)) {
+					if (!modified.getBoolOrDefault(name, false)) {
+						specialCase.apply.accept(modified);
+						modified.put(name, true);
+						layers.invalidate(type);
 					}
-					if (variantSuggestedOrPossible._2 != null) {
-						possible = variantSuggestedOrPossible._2;
-					}
-				}
-			}
-
-			while (current != null) {
-				final JSONObject requirements = current.data.getObjOrDefault("Voraussetzungen", new JSONObject(null)).getObjOrDefault("Kulturen", null);
-				if (requirements != null) {
-					final JSONObject requiredCultures = requirements.getObjOrDefault("Muss", requirements.getObjOrDefault("Wahl", null));
-					if (requiredCultures != null) {
-						boolean foundCulture = false;
-						RKP curCulture = culture;
-						while (curCulture != null) {
-							if (requiredCultures.containsKey(curCulture.name)) {
-								foundCulture = true;
-								break;
-							}
-							curCulture = curCulture.parent;
+				} else {
+					if (modified.getBoolOrDefault(name, false)) {
+						if (unaltered == null) {
+							final RKPSelector selector = switch (type) {
+								case "Rasse" -> raceSelector;
+								case "Kultur" -> cultureSelector;
+								default -> professionSelector;
+							};
+							unaltered = build(selector.getCurrentChoice(), selector.getCurrentVariants(), null);
 						}
-						if (!foundCulture)
-							return false;
+						specialCase.unapply.accept(modified, unaltered);
+						modified.removeKey(name);
+						layers.invalidate(type);
 					}
 				}
-				if (suggested != null && suggested.contains(current.name) || possible != null && possible.contains(current.name)) return true;
-				current = current.parent;
 			}
-			return possible == null;
 		}
-
-		return true;
 	}
 
-	private boolean isPossibleRace(final RKP race, final RKP culture, final RKP profession, final RKP secondProfession) {
-		if (race == null) return true;
-
-		if (profession != null) {
-			RKP current = profession;
-
-			while (current != null) {
-				final JSONObject requirements = current.data.getObjOrDefault("Voraussetzungen", new JSONObject(null)).getObjOrDefault("Rassen", null);
-				if (requirements != null) {
-					final JSONObject requiredRaces = requirements.getObjOrDefault("Muss", requirements.getObjOrDefault("Wahl", null));
-					if (requiredRaces != null) {
-						if (!requiredRaces.containsKey(race.name))
-							return false;
-						break;
-					}
-				}
-				current = current.parent;
-			}
-		}
-
-		if (secondProfession != null) {
-			RKP current = secondProfession;
-
-			while (current != null) {
-				final JSONObject requirements = current.data.getObjOrDefault("Voraussetzungen", new JSONObject(null)).getObjOrDefault("Rassen", null);
-				if (requirements != null) {
-					final JSONObject requiredRaces = requirements.getObjOrDefault("Muss", requirements.getObjOrDefault("Wahl", null));
-					if (requiredRaces != null) {
-						if (!requiredRaces.containsKey(race.name))
-							return false;
-						break;
-					}
-				}
-				current = current.parent;
-			}
-		}
-
-		if (culture != null) {
-			JSONArray suggested = race.getSuggestedOrPossible()._1;
-			JSONArray possible = race.getSuggestedOrPossible()._2;
-			RKP currentRace = race;
-			while (currentRace.parent != null) {
-				currentRace = currentRace.parent;
-				if (suggested == null) {
-					suggested = currentRace.getSuggestedOrPossible()._1;
-				}
-				if (possible == null) {
-					possible = currentRace.getSuggestedOrPossible()._2;
-				}
-			}
-			RKP current = culture;
-			boolean foundCulture = false;
-			while (current != null) {
-				if (suggested != null && suggested.contains(current.name) || possible != null && possible.contains(current.name)) {
-					foundCulture = true;
-					break;
-				}
-				current = current.parent;
-			}
-			if (!foundCulture)
-				return false;
-		}
-
-		return true;
+	public void registerSpecialCase(final SpecialCase specialCase) {
+		specialCases.computeIfAbsent(specialCase.type, _ -> new ArrayList<>()).add(specialCase);
 	}
 
-	private boolean isSuggestedRace(final RKP race, final RKP culture) {
-		if (race == null || culture == null) return false;
-
-		JSONArray suggested = race.getSuggestedOrPossible()._1;
-		if (race.parent != null && suggested == null) {
-			suggested = race.parent.getSuggestedOrPossible()._1;
-		}
-		if (suggested == null) return false;
-		RKP current = culture;
-		while (current != null) {
-			if (suggested.contains(current.name)) return true;
-			current = current.parent;
-		}
-		return false;
+	public void registerSpecialCase(final String name, final JSONObject data) {
+		registerSpecialCase(SpecialCase.fromData(name, data));
 	}
 
 	private String RKPString(final RKP rkp, final List<RKP> variants, final boolean skipRootName) {
@@ -1440,54 +1316,21 @@ public class RKPSelectors extends TabController {
 		return result.toString();
 	}
 
-	private void updateBGBVeteran() {
-		changedBgbVeteran = true;
-
-		final BGBVeteran type = bgbVeteranSelector.getType();
-		final RKP profession = bgbVeteranSelector.getCurrentChoice();
-		final List<RKP> variants = bgbVeteranSelector.getCurrentVariants();
-
-		if (profession == null) {
-			bgbVeteranLabel.setText("");
-			bgbVeteranProfessionLabel.setText("");
-			generationState.removeKey("Breitgefächerte Bildung");
-			generationState.removeKey("Veteran");
-		} else {
-			switch (type) {
-				case VETERAN:
-					final String variantString = RKPString(profession, variants, true);
-					bgbVeteranLabel.setText(variantString.length() != 0 ? "Veteran:" : "Veteran");
-					bgbVeteranProfessionLabel.setText(variantString);
-					generationState.put("Veteran", buildProfession(profession, variants));
-					break;
-				case BGB:
-					bgbVeteranLabel.setText("Breitgefächerte Bildung:");
-					bgbVeteranProfessionLabel.setText(RKPString(profession, variants, false));
-					generationState.put("Breitgefächerte Bildung", buildProfession(profession, variants));
-					break;
-				default:
-					bgbVeteranLabel.setText("");
-					bgbVeteranProfessionLabel.setText("");
-					generationState.removeKey("Breitgefächerte Bildung");
-					generationState.removeKey("Veteran");
-			}
+	private void scheduleValidityUpdate(final boolean race, final boolean culture, final boolean profession) {
+		pendingRaceValidity |= race;
+		pendingCultureValidity |= culture;
+		pendingProfessionValidity |= profession;
+		if (!validityUpdateScheduled) {
+			validityUpdateScheduled = true;
+			Platform.runLater(this::updateValidity);
 		}
+	}
 
-		updateRaceSuggestedOrPossible();
-		updateCultureSuggestedOrPossible();
+	private void updateBGBVeteran() {
+		changedBgbVeteran = true;
+		pendingBgbVeteran = true;
+		scheduleValidityUpdate(true, true, false);
 		updateCanContinue();
-
-		updateGenderValidity();
-
-		final int cost = switch (type) {
-			case BGB -> ResourceManager.getResource("data/Vorteile").getObj("Breitgefächerte Bildung").getIntOrDefault("Kosten", 7);
-			case VETERAN -> ResourceManager.getResource("data/Vorteile").getObj("Veteran").getIntOrDefault("Kosten", 3);
-			default -> 0;
-		};
-
-		gp.set(gp.get() + bgbVeteranCost);
-		bgbVeteranCost = (type != BGBVeteran.NONE ? getCost(profession, variants) : 0) + cost;
-		gp.set(gp.get() - bgbVeteranCost);
 	}
 
 	private void updateCanContinue() {
@@ -1499,94 +1342,30 @@ public class RKPSelectors extends TabController {
 
 	private void updateCulture() {
 		changedCulture = true;
-
-		final RKP culture = cultureSelector.getCurrentChoice();
-		final List<RKP> variants = cultureSelector.getCurrentVariants();
-		cultureLabel.setText(RKPString(culture, variants, false));
-
-		if (culture == null) {
-			generationState.removeKey("Kultur");
-		} else {
-			generationState.put("Kultur", buildCulture(culture, variants));
-		}
-
-		updateRaceSuggestedOrPossible();
-		updateProfessionSuggestedOrPossible();
-
+		pendingCulture = true;
+		scheduleValidityUpdate(true, false, true);
 		updateCanContinue();
-		bgbVeteranSelector.updateValid();
-
-		updateGenderValidity();
-
-		gp.set(gp.get() + cultureCost);
-		cultureCost = getCost(culture, variants);
-		gp.set(gp.get() - cultureCost);
 	}
 
 	private void updateCultureSuggestedOrPossible() {
-		RKP race = raceSelector.getCurrentChoice();
+		final CompatibilityIndex index = CompatibilityIndex.getInstance();
+		final RKP race = raceSelector.getCurrentChoice();
 		final List<RKP> raceVariants = raceSelector.getCurrentVariants();
 		final RKP profession = professionSelector.getCurrentChoice();
 		final RKP secondProfession = bgbVeteranSelector.getCurrentChoice();
 
-		final Tuple<JSONArray, JSONArray> fromRace = new Tuple<>(null, null);
+		final Tuple<BitSet, BitSet> fromRace = index.getCulturesFromRace(race, raceVariants);
 
-		while (race != null) {
-			final Tuple<JSONArray, JSONArray> suggestedOrPossible = race.getSuggestedOrPossible();
-			if (fromRace._1 == null) {
-				fromRace._1 = suggestedOrPossible._1;
-			}
-			if (fromRace._2 == null) {
-				fromRace._2 = suggestedOrPossible._2;
-			}
-			if (fromRace._1 != null && fromRace._2 != null) {
-				break;
-			}
-			race = race.parent;
-		}
-		if (raceVariants != null) {
-			for (final RKP variant : raceVariants) {
-				final Tuple<JSONArray, JSONArray> variantSuggestedOrPossible = variant.getSuggestedOrPossible();
-				if (variantSuggestedOrPossible._1 != null) {
-					fromRace._1 = variantSuggestedOrPossible._1;
-				}
-				if (variantSuggestedOrPossible._2 != null) {
-					fromRace._2 = variantSuggestedOrPossible._2;
-				}
-			}
-		}
+		final CompatibilityIndex.Node professionNode = profession != null ? index.node(profession) : null;
+		final CompatibilityIndex.Node secondProfessionNode = secondProfession != null ? index.node(secondProfession) : null;
+		final Predicate<CompatibilityIndex.Node> professions = culture -> index.isPossibleProfession(null, culture, null, professionNode)
+				&& index.isPossibleProfession(null, culture, null, secondProfessionNode);
+		final Predicate<CompatibilityIndex.Node> suggested = culture -> index.isSuggestedCulture(fromRace, culture) && professions.test(culture);
+		final Predicate<CompatibilityIndex.Node> possible = culture -> index.isPossibleCulture(fromRace, culture) && professions.test(culture);
 
-		cultureSelector.updateSuggestedPossible(culture -> {
-			if (fromRace._1 == null) return false;
-			RKP current = culture;
-			while (current != null) {
-				if (fromRace._1.contains(current.name) && isPossibleProfession(null, culture, null, profession)
-						&& isPossibleProfession(null, culture, null, secondProfession))
-					return true;
-				current = current.parent;
-			}
-			return false;
-		}, culture -> {
-			boolean raceOk = false;
-			if (fromRace._2 == null) {
-				raceOk = true;
-			} else {
-				RKP current = culture;
-				while (current != null) {
-					if (fromRace._1.contains(current.name) || fromRace._2.contains(current.name)) {
-						raceOk = true;
-						break;
-					}
-					current = current.parent;
-				}
-			}
-
-			final boolean professionOk = isPossibleProfession(null, culture, null, profession);
-
-			final boolean bgbVeteranOk = isPossibleProfession(null, culture, null, secondProfession);
-
-			return raceOk && professionOk && bgbVeteranOk;
-		});
+		cultureSelector.updateSuggestedPossible(suggestedPossibleInputs(race, raceVariants, profession, secondProfession),
+				culture -> suggested.test(index.node(culture)), culture -> possible.test(index.node(culture)),
+				(culture, suggestions) -> index.getBelow(culture, suggestions ? suggested : _ -> false, possible));
 	}
 
 	private void updateGenderValidity() {
@@ -1599,93 +1378,92 @@ public class RKPSelectors extends TabController {
 	}
 
 	private void updateGenderValidity(final RKP choice, final List<RKP> variants) {
+		String requirement = null;
 		if (variants != null) {
 			for (final RKP variant : variants) {
-				final String requirement = variant.data.getObjOrDefault("Voraussetzungen", new JSONObject(null)).getStringOrDefault("Geschlecht", null);
-				if (requirement != null) {
-					if ("männlich".equals(requirement)) {
-						female.getStyleClass().add("invalid");
-					} else {
-						male.getStyleClass().add("invalid");
-					}
-					return;
+				if (variant.genderRequirement != null) {
+					requirement = variant.genderRequirement;
+					break;
 				}
 			}
 		}
+		if (requirement == null && choice != null) {
+			requirement = choice.genderRequirement;
+		}
 
-		if (choice != null) {
-			final String requirement = choice.data.getObjOrDefault("Voraussetzungen", new JSONObject(null)).getStringOrDefault("Geschlecht", null);
-			if (requirement != null) {
-				if ("männlich".equals(requirement)) {
-					female.getStyleClass().add("invalid");
-				} else {
-					male.getStyleClass().add("invalid");
-				}
+		if (requirement != null) {
+			if ("männlich".equals(requirement)) {
+				female.getStyleClass().add("invalid");
+			} else {
+				male.getStyleClass().add("invalid");
 			}
 		}
 	}
 
-	private void updateProfession() {
-		changedProfession = true;
-		final RKP profession = professionSelector.getCurrentChoice();
-		final List<RKP> variants = professionSelector.getCurrentVariants();
-		professionLabel.setText(RKPString(profession, variants, false));
-
-		if (profession == null) {
-			generationState.removeKey("Profession");
-		} else {
-			generationState.put("Profession", buildProfession(profession, variants));
+	private void updateValidity() {
+		validityUpdateScheduled = false;
+		applyPendingChoices();
+		if (pendingListRefresh) {
+			pendingListRefresh = false;
+			raceSelector.refreshList();
+			cultureSelector.refreshList();
+			professionSelector.refreshList();
+			bgbVeteranSelector.refreshList();
 		}
-
-		updateRaceSuggestedOrPossible();
-		updateCultureSuggestedOrPossible();
-		updateCanContinue();
+		if (pendingRaceValidity) {
+			updateRaceSuggestedOrPossible();
+		}
+		if (pendingCultureValidity) {
+			updateCultureSuggestedOrPossible();
+		}
+		if (pendingProfessionValidity) {
+			updateProfessionSuggestedOrPossible();
+		}
+		pendingRaceValidity = false;
+		pendingCultureValidity = false;
+		pendingProfessionValidity = false;
 
 		updateGenderValidity();
+	}
 
-		bgbVeteranSelector.setProfession(profession);
+	private void updateProfession() {
+		changedProfession = true;
+		pendingProfession = true;
+		scheduleValidityUpdate(true, true, false);
+		updateCanContinue();
 
-		gp.set(gp.get() + professionCost);
-		professionCost = getCost(profession, variants);
-		gp.set(gp.get() - professionCost);
+		bgbVeteranSelector.setProfession(professionSelector.getCurrentChoice());
 	}
 
 	private void updateProfessionSuggestedOrPossible() {
+		final CompatibilityIndex index = CompatibilityIndex.getInstance();
 		final RKP race = raceSelector.getCurrentChoice();
 		final RKP culture = cultureSelector.getCurrentChoice();
 		final List<RKP> variants = cultureSelector.getCurrentVariants();
-		updateCultureSuggestedOrPossible();
-		professionSelector.updateSuggestedPossible(_ -> false, profession -> isPossibleProfession(race, culture, variants, profession));
-		bgbVeteranSelector.setSuggestedPossible(_ -> false, profession -> isPossibleProfession(race, culture, variants, profession));
+		final List<Object> inputs = suggestedPossibleInputs(race, culture, variants);
+		final CompatibilityIndex.Node raceNode = race != null ? index.node(race) : null;
+		final CompatibilityIndex.Node cultureNode = culture != null ? index.node(culture) : null;
+		final Predicate<CompatibilityIndex.Node> possible = profession -> index.isPossibleProfession(raceNode, cultureNode, variants, profession);
+		professionSelector.updateSuggestedPossible(inputs, _ -> false, profession -> possible.test(index.node(profession)),
+				(profession, _) -> index.getBelow(profession, _ -> false, possible));
+		bgbVeteranSelector.setSuggestedPossible(inputs, _ -> false, profession -> index.isPossibleProfession(race, culture, variants, profession));
 	}
 
 	private void updateRace() {
 		changedRace = true;
-		final RKP race = raceSelector.getCurrentChoice();
-		final List<RKP> variants = raceSelector.getCurrentVariants();
-		raceLabel.setText(RKPString(race, variants, false));
-
-		if (race == null) {
-			generationState.removeKey("Rasse");
-		} else {
-			generationState.put("Rasse", buildRace(race, variants));
-		}
-
-		updateCultureSuggestedOrPossible();
+		pendingRace = true;
+		scheduleValidityUpdate(false, true, true);
 		updateCanContinue();
-		bgbVeteranSelector.updateValid();
-
-		updateGenderValidity();
-
-		gp.set(gp.get() + raceCost);
-		raceCost = getCost(race, variants);
-		gp.set(gp.get() - raceCost);
 	}
 
 	private void updateRaceSuggestedOrPossible() {
+		final CompatibilityIndex index = CompatibilityIndex.getInstance();
 		final RKP culture = cultureSelector.getCurrentChoice();
 		final RKP profession = professionSelector.getCurrentChoice();
 		final RKP secondProfession = bgbVeteranSelector.getCurrentChoice();
-		raceSelector.updateSuggestedPossible(race -> isSuggestedRace(race, culture), race -> isPossibleRace(race, culture, profession, secondProfession));
+		final Predicate<CompatibilityIndex.Node> suggested = race -> index.isSuggestedRace(race, culture);
+		final Predicate<CompatibilityIndex.Node> possible = race -> index.isPossibleRace(race, culture, profession, secondProfession);
+		raceSelector.updateSuggestedPossible(suggestedPossibleInputs(culture, profession, secondProfession), race -> suggested.test(index.node(race)),
+				race -> possible.test(index.node(race)), (race, suggestions) -> index.getBelow(race, suggestions ? suggested : _ -> false, possible));
 	}
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.race_culture_profession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import jsonant.value.JSONArray;
+import jsonant.value.JSONObject;
+
+public class SpecialCase {
+	public static SpecialCase fromData(final String name, final JSONObject data) {
+		final String type = data.getString("Typ");
+		final JSONObject conditions = data.getObjOrDefault("Bedingungen", new JSONObject(null));
+		final JSONObject removed = data.getObjOrDefault("Entfernen", new JSONObject(null));
+
+		final List<String> inputs = new ArrayList<>();
+		inputs.add(type);
+		for (final String condition : conditions.keySet()) {
+			final String input = condition.endsWith(":Modifikation") ? condition.substring(0, condition.length() - 13) : condition;
+			if (!inputs.contains(input)) {
+				inputs.add(input);
+			}
+		}
+
+		return new SpecialCase(name, type, inputs.toArray(new String[inputs.size()]), hero -> {
+			final JSONObject biography = hero.getObj("Biografie");
+			for (final String condition : conditions.keySet()) {
+				final String required = conditions.getString(condition);
+				if (condition.endsWith(":Modifikation")) {
+					final JSONArray modifications = biography.getArrOrDefault(condition, null);
+					if (modifications == null || !modifications.contains(required)) return false;
+				} else if (!required.equals(biography.getStringOrDefault(condition, null))) return false;
+			}
+			return true;
+		}, target -> {
+			for (final String category : removed.keySet()) {
+				JSONObject values = target.getObjOrDefault(category, null);
+				if (values == null) {
+					continue;
+				}
+				if (!BuildCache.MUTABLE_SECTIONS.contains(category)) {
+					values = values.clone(target);
+					target.put(category, values);
+				}
+				final JSONArray names = removed.getArr(category);
+				for (int i = 0; i < names.size(); ++i) {
+					values.removeKey(names.getString(i));
+				}
+			}
+		}, (target, unaltered) -> {
+			for (final String category : removed.keySet()) {
+				final JSONObject unalteredValues = unaltered.getObjOrDefault(category, null);
+				final JSONObject values = target.getObjOrDefault(category, null);
+				if (unalteredValues == null || values == null) {
+					continue;
+				}
+				final JSONArray names = removed.getArr(category);
+				for (int i = 0; i < names.size(); ++i) {
+					final String current = names.getString(i);
+					if (unalteredValues.containsKey(current)) {
+						values.put(current, unalteredValues.getObj(current).clone(values));
+					}
+				}
+			}
+		});
+	}
+
+	final String name;
+	final String type;
+	final String[] inputs;
+	final Predicate<JSONObject> applicable;
+	final Consumer<JSONObject> apply;
+	final BiConsumer<JSONObject, JSONObject> unapply;
+
+	private Object[] lastInputs;
+
+	public SpecialCase(final String name, final String type, final String[] inputs, final Predicate<JSONObject> applicable, final Consumer<JSONObject> apply,
+			final BiConsumer<JSONObject, JSONObject> unapply) {
+		this.name = name;
+		this.type = type;
+		this.inputs = inputs;
+		this.applicable = applicable;
+		this.apply = apply;
+		this.unapply = unapply;
+	}
+
+	boolean inputsChanged(final JSONObject generationState) {
+		final JSONObject biography = generationState.getObj("Held").getObj("Biografie");
+		final Object[] current = new Object[inputs.length * 3];
+		for (int i = 0; i < inputs.length; ++i) {
+			current[i * 3] = generationState.getObjOrDefault(inputs[i], null);
+			current[i * 3 + 1] = biography.getStringOrDefault(inputs[i], null);
+			current[i * 3 + 2] = biography.getArrOrDefault(inputs[i] + ":Modifikation", null);
+		}
+		boolean changed = lastInputs == null;
+		for (int i = 0; !changed && i < current.length; ++i) {
+			changed = i % 3 == 1 ? !Objects.equals(current[i], lastInputs[i]) : current[i] != lastInputs[i];
+		}
+		lastInputs = current;
+		return changed;
+	}
+}
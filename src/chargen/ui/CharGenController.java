@@ -25,12 +25,12 @@ import chargen.biography.Biography;
 import chargen.choices.Choices;
 import chargen.pros_cons_skills.ProConSkillSelectors;
 import chargen.race_culture_profession.RKPSelectors;
+import chargen.util.TalentCatalog;
 import dsa41basis.util.HeroUtil;
 import dsatool.gui.ThemedAlert;
 import dsatool.resources.ResourceManager;
 import dsatool.resources.Settings;
 import dsatool.util.ErrorLogger;
-import dsatool.util.Tuple;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.fxml.FXML;
@@ -107,14 +107,14 @@ public class CharGenController {
 			final JSONArray pro = pros.getArr("Begabung für Talent");
 			for (int i = 0; i < pro.size(); ++i) {
 				final String talentName = pro.getObj(i).getString("Auswahl");
-				final Tuple<JSONObject, String> talentAndGroup = HeroUtil.findTalent(talentName);
-				Object talent = hero.getObj("Talente").getObj(talentAndGroup._2).getUnsafe(talentName);
-				if (talent == null && !talentAndGroup._1.containsKey("Auswahl") && !talentAndGroup._1.containsKey("Freitext")) {
-					talent = hero.getObj("Talente").getObj(talentAndGroup._2).getObj(talentName);
+				final TalentCatalog.Entry entry = TalentCatalog.getInstance().get(talentName);
+				Object talent = hero.getObj("Talente").getObj(entry.group).getUnsafe(talentName);
+				if (talent == null && !entry.isSelectable()) {
+					talent = hero.getObj("Talente").getObj(entry.group).getObj(talentName);
 				}
 				if (talent instanceof final JSONObject obj) {
 					final int taw = obj.getIntOrDefault("TaW", 0);
-					if (taw == 0 && !talentAndGroup._1.getBoolOrDefault("Basis", false)) {
+					if (taw == 0 && !entry.isBasis) {
 						obj.put("TaW", 0);
 						obj.removeKey("aktiviert");
 					} else {
@@ -124,7 +124,7 @@ public class CharGenController {
 					for (int j = 0; j < arr.size(); ++j) {
 						final JSONObject variant = arr.getObj(i);
 						final int taw = variant.getIntOrDefault("TaW", 0);
-						if (taw == 0 && !talentAndGroup._1.getBoolOrDefault("Basis", false)) {
+						if (taw == 0 && !entry.isBasis) {
 							variant.put("TaW", 0);
 							variant.removeKey("aktiviert");
 						} else {
@@ -15,8 +15,12 @@
  */
 package chargen.util;
 
+import java.text.CollationKey;
 import java.text.Collator;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 
 import jsonant.value.JSONArray;
 import jsonant.value.JSONObject;
@@ -25,6 +29,18 @@ public class ChargenUtil {
 
 	public static final Collator comparator = Collator.getInstance(Locale.GERMANY);
 
+	private static final Map<String, CollationKey> collationKeys = new HashMap<>();
+
+	public static final Comparator<String> collationComparator = Comparator.nullsFirst((l, r) -> getCollationKey(l).compareTo(getCollationKey(r)));
+
+	public static synchronized void clearCollationKeys() {
+		collationKeys.clear();
+	}
+
+	public static synchronized CollationKey getCollationKey(final String string) {
+		return collationKeys.computeIfAbsent(string, comparator::getCollationKey);
+	}
+
 	public static JSONObject match(final JSONArray target, final JSONObject current, final boolean hasChoice, final boolean hasFreetext) {
 		if (target == null) return null;
 		for (int k = 0; k < target.size(); ++k) {
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jsonant.value.JSONArray;
+import jsonant.value.JSONObject;
+
+public class ChoiceIndex {
+	private static class Entries {
+		private final JSONArray array;
+		private final boolean hasChoice;
+		private final boolean hasFreetext;
+		private final Map<String, List<JSONObject>> byKey = new HashMap<>();
+		private int size = 0;
+
+		private Entries(final JSONArray array, final boolean hasChoice, final boolean hasFreetext) {
+			this.array = array;
+			this.hasChoice = hasChoice;
+			this.hasFreetext = hasFreetext;
+		}
+
+		private void add(final JSONObject entry) {
+			++size;
+			byKey.computeIfAbsent(key(entry.getStringOrDefault("Auswahl", ""), entry.getStringOrDefault("Freitext", "")), _ -> new ArrayList<>(1)).add(entry);
+		}
+
+		private String key(final String choice, final String freetext) {
+			return (hasChoice ? choice : "") + '\0' + (hasFreetext ? freetext : "");
+		}
+
+		private void remove(final JSONObject entry) {
+			final List<JSONObject> candidates = byKey.get(key(entry.getStringOrDefault("Auswahl", ""), entry.getStringOrDefault("Freitext", "")));
+			if (candidates != null) {
+				for (int i = 0; i < candidates.size(); ++i) {
+					if (candidates.get(i) == entry) {
+						candidates.remove(i);
+						--size;
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	private final JSONObject section;
+	private final Map<String, Entries> names = new HashMap<>();
+
+	public ChoiceIndex(final JSONObject section) {
+		this.section = section;
+	}
+
+	public void add(final String name, final JSONObject entry) {
+		final Entries entries = names.get(name);
+		if (entries != null) {
+			entries.add(entry);
+		}
+	}
+
+	private Entries getEntries(final String name, final boolean hasChoice, final boolean hasFreetext) {
+		final JSONArray array = section.getArrOrDefault(name, null);
+		Entries entries = names.get(name);
+		if (entries == null || entries.array != array || entries.size != (array == null ? 0 : array.size()) || entries.hasChoice != hasChoice
+				|| entries.hasFreetext != hasFreetext) {
+			entries = new Entries(array, hasChoice, hasFreetext);
+			if (array != null) {
+				for (int i = 0; i < array.size(); ++i) {
+					entries.add(array.getObj(i));
+				}
+			}
+			names.put(name, entries);
+		}
+		return entries;
+	}
+
+	public JSONObject match(final String name, final JSONObject current, final boolean hasChoice, final boolean hasFreetext) {
+		if (hasFreetext && !current.containsKey("Freitext")) return null;
+		final Entries entries = getEntries(name, hasChoice, hasFreetext);
+		final List<JSONObject> candidates = entries.byKey.get(entries.key(current.getStringOrDefault("Auswahl", ""), current.getStringOrDefault("Freitext", "")));
+		return candidates == null || candidates.isEmpty() ? null : candidates.get(0);
+	}
+
+	public void remove(final String name, final JSONObject entry) {
+		final Entries entries = names.get(name);
+		if (entries != null) {
+			entries.remove(entry);
+		}
+	}
+}
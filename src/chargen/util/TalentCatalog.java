@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import dsa41basis.util.HeroUtil;
+import dsatool.resources.ResourceManager;
+import dsatool.util.Tuple;
+import jsonant.value.JSONObject;
+
+public class TalentCatalog {
+	public static class Entry {
+		public final int id;
+		public final String name;
+		public final JSONObject talent;
+		public final String group;
+		public final boolean isBasis;
+		public final boolean hasChoice;
+		public final boolean hasFreetext;
+		public final boolean isWriting;
+
+		private Entry(final int id, final String name, final JSONObject talent, final String group) {
+			this.id = id;
+			this.name = name;
+			this.talent = talent;
+			this.group = group;
+			isBasis = talent != null && talent.getBoolOrDefault("Basis", false);
+			hasChoice = talent != null && talent.containsKey("Auswahl");
+			hasFreetext = talent != null && talent.containsKey("Freitext");
+			isWriting = talent != null && "Sprachen und Schriften".equals(group) && talent.getBoolOrDefault("Schrift", false);
+		}
+
+		public boolean isSelectable() {
+			return hasChoice || hasFreetext;
+		}
+	}
+
+	private static TalentCatalog instance;
+
+	public static synchronized TalentCatalog getInstance() {
+		final JSONObject talents = ResourceManager.getResource("data/Talente");
+		final JSONObject spells = ResourceManager.getResource("data/Zauber");
+		if (instance == null || instance.talents != talents || instance.spells != spells) {
+			instance = new TalentCatalog(talents, spells);
+		}
+		return instance;
+	}
+
+	private final JSONObject talents;
+	private final JSONObject spells;
+
+	private final Map<String, Entry> entries = new HashMap<>();
+	private final List<Entry> basisTalents = new ArrayList<>();
+
+	private TalentCatalog(final JSONObject talents, final JSONObject spells) {
+		this.talents = talents;
+		this.spells = spells;
+
+		for (final String groupName : talents.keySet()) {
+			final JSONObject talentGroup = talents.getObj(groupName);
+			for (final String talentName : talentGroup.keySet()) {
+				final Entry entry = new Entry(entries.size(), talentName, talentGroup.getObj(talentName), groupName);
+				if (entries.putIfAbsent(talentName, entry) == null && entry.isBasis) {
+					basisTalents.add(entry);
+				}
+			}
+		}
+	}
+
+	public synchronized Entry get(final String name) {
+		Entry entry = entries.get(name);
+		if (entry == null) {
+			final Tuple<JSONObject, String> talentAndGroup = HeroUtil.findTalent(name);
+			entry = new Entry(entries.size(), name, talentAndGroup._1, talentAndGroup._2);
+			entries.put(name, entry);
+		}
+		return entry;
+	}
+
+	public List<Entry> getBasisTalents() {
+		return Collections.unmodifiableList(basisTalents);
+	}
+}
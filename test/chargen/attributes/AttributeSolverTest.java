@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.attributes;
+
+import static chargen.util.JSONFixtures.child;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import chargen.attributes.AttributeSolver.Objective;
+import jsonant.value.JSONObject;
+
+public class AttributeSolverTest {
+	private static final String[] NAMES = { "MU", "KL", "IN" };
+
+	private AttributeModel model;
+	private boolean[] keyAttributes;
+
+	private int badAttributes(final int[] values) {
+		int result = 0;
+		for (int i = 0; i < values.length; ++i) {
+			if (values[i] < model.mins[i]) {
+				++result;
+			}
+		}
+		return result;
+	}
+
+	private int cost(final int[] values) {
+		int result = 0;
+		for (int i = 0; i < values.length; ++i) {
+			result += model.costOf(i, values[i]);
+		}
+		return result;
+	}
+
+	@BeforeEach
+	public void setUp() {
+		final JSONObject attributes = new JSONObject(null);
+		final JSONObject pros = new JSONObject(null);
+		final JSONObject cons = new JSONObject(null);
+		for (final String name : NAMES) {
+			final JSONObject attribute = child(attributes, name);
+			attribute.put("Miserable Eigenschaft", "Miserabel " + name);
+			attribute.put("Herausragende Eigenschaft", "Herausragend " + name);
+			child(pros, "Herausragend " + name).put("Kosten", 7);
+			child(cons, "Miserabel " + name).put("Kosten", 5);
+		}
+
+		final JSONObject generationState = new JSONObject(null);
+		final JSONObject hero = child(generationState, "Held");
+		final JSONObject actualAttributes = child(hero, "Eigenschaften");
+		for (final String name : NAMES) {
+			child(actualAttributes, name);
+		}
+		child(hero, "Vorteile");
+		child(hero, "Nachteile");
+		for (final String rkp : new String[] { "Rasse", "Kultur", "Profession" }) {
+			final JSONObject current = child(generationState, rkp);
+			child(current, "Eigenschaften");
+			child(child(current, "Voraussetzungen"), "Eigenschaften");
+		}
+		final JSONObject profession = generationState.getObj("Profession");
+		profession.getObj("Eigenschaften").put("MU", 1);
+		profession.getObj("Voraussetzungen").getObj("Eigenschaften").put("KL", 12);
+
+		model = new AttributeModel(generationState, attributes, pros, cons, 8, 14);
+		keyAttributes = new boolean[] { false, true, false };
+	}
+
+	@Test
+	public void minimalGPWithoutCons() {
+		assertArrayEquals(new int[] { 9, 12, 8 }, AttributeSolver.solve(model, 100, 100, 0, keyAttributes, Objective.MIN_GP));
+	}
+
+	@Test
+	public void minimalGPRespectsConLimit() {
+		final int[] one = AttributeSolver.solve(model, 100, 100, 5, keyAttributes, Objective.MIN_GP);
+		assertEquals(1, badAttributes(one));
+		assertEquals(12, one[1]);
+
+		assertArrayEquals(new int[] { 8, 12, 7 }, AttributeSolver.solve(model, 100, 100, 10, keyAttributes, Objective.MIN_GP));
+		assertArrayEquals(new int[] { 8, 12, 7 }, AttributeSolver.solve(model, 100, 100, 50, keyAttributes, Objective.MIN_GP));
+	}
+
+	@Test
+	public void keyAttributesStayRegular() {
+		assertArrayEquals(new int[] { 9, 14, 8 }, AttributeSolver.solve(model, 100, 100, 50, keyAttributes, Objective.KEY_ATTRIBUTES));
+	}
+
+	@Test
+	public void noBadAttributesStaysWithinBudget() {
+		final int[] values = AttributeSolver.solve(model, 100, 30, 50, keyAttributes, Objective.NO_BAD_ATTRIBUTES);
+		assertEquals(0, badAttributes(values));
+		assertTrue(values[1] >= 12);
+		assertTrue(cost(values) <= 30);
+
+		assertArrayEquals(new int[] { 15, 14, 14 }, AttributeSolver.solve(model, 100, 100, 50, keyAttributes, Objective.NO_BAD_ATTRIBUTES));
+	}
+
+	@Test
+	public void reportsInfeasibleBudget() {
+		assertNull(AttributeSolver.solve(model, 100, 20, 50, keyAttributes, Objective.NO_BAD_ATTRIBUTES));
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.choices;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import jsonant.value.JSONObject;
+
+public class ChoiceBatchTest {
+	private static class RecordingChoice extends Choice {
+		private final String name;
+		private final List<String> log;
+
+		private RecordingChoice(final String name, final List<String> log) {
+			this.name = name;
+			this.log = log;
+		}
+
+		@Override
+		public void apply(final JSONObject hero, final boolean alreadyApplied) {
+			log.add("apply " + name + (alreadyApplied ? " (applied)" : ""));
+		}
+
+		@Override
+		public void unapply(final JSONObject hero) {
+			log.add("unapply " + name);
+		}
+	}
+
+	private final JSONObject hero = new JSONObject(null);
+	private final List<String> log = new ArrayList<>();
+
+	@Test
+	public void appliesInOrder() {
+		final ChoiceBatch batch = new ChoiceBatch(hero);
+		batch.unapply(new RecordingChoice("A", log)).apply(new RecordingChoice("B", log), false).apply(new RecordingChoice("C", log), true);
+		assertEquals(List.of(), log);
+
+		batch.commit();
+		assertEquals(List.of("unapply A", "apply B", "apply C (applied)"), log);
+	}
+
+	@Test
+	public void commitEmptiesBatch() {
+		final ChoiceBatch batch = new ChoiceBatch(hero);
+		batch.apply(new RecordingChoice("A", log), false);
+		batch.commit();
+		batch.commit();
+		assertEquals(List.of("apply A"), log);
+	}
+
+	@Test
+	public void ignoresMissingChoices() {
+		final ChoiceBatch batch = new ChoiceBatch(hero);
+		assertSame(batch, batch.apply(null, false).unapply(null));
+		final long batches = ChoiceBatch.getBatches();
+		batch.commit();
+		assertEquals(batches, ChoiceBatch.getBatches());
+	}
+
+	@Test
+	public void keepsAlreadyAppliedTalentValues() {
+		final TestTalent talent = new TestTalent("Klettern", 4);
+		new ChoiceBatch(hero).apply(new TalentChoice(talent, 2, false), true).commit();
+		assertEquals(4, talent.getValue());
+		assertEquals(0, talent.writes);
+	}
+
+	@Test
+	public void mergesTalentWrites() {
+		final TestTalent talent = new TestTalent("Klettern", 2);
+		final TestTalent other = new TestTalent("Schwimmen", Integer.MIN_VALUE);
+		final long writes = ChoiceBatch.getTalentWrites();
+		final long merged = ChoiceBatch.getMergedTalentWrites();
+
+		new ChoiceBatch(hero).apply(new TalentChoice(talent, 3, false), false).unapply(new TalentChoice(talent, 1, false))
+				.apply(new TalentChoice(talent, 2, false), false).apply(new TalentChoice(other, 1, false), false).commit();
+
+		assertEquals(6, talent.getValue());
+		assertEquals(1, talent.writes);
+		assertEquals(1, other.getValue());
+		assertEquals(1, other.writes);
+		assertEquals(writes + 2, ChoiceBatch.getTalentWrites());
+		assertEquals(merged + 2, ChoiceBatch.getMergedTalentWrites());
+	}
+
+	@Test
+	public void resetsChoiceOnlyTalents() {
+		final TestTalent talent = new TestTalent("Klettern", 0);
+		talent.getActual().put("temporary:ChoiceOnly", true);
+		final TestTalent basis = new TestTalent("Schwimmen", 0);
+		basis.getActual().put("temporary:ChoiceOnly", true);
+		basis.getTalent().put("Basis", true);
+
+		final TalentChoice choice = new TalentChoice(talent, 2, false);
+		final TalentChoice basisChoice = new TalentChoice(basis, 2, false);
+		new ChoiceBatch(hero).apply(choice, false).apply(basisChoice, false).commit();
+		assertEquals(2, talent.getValue());
+		assertEquals(2, basis.getValue());
+
+		new ChoiceBatch(hero).unapply(choice).unapply(basisChoice).commit();
+		assertEquals(Integer.MIN_VALUE, talent.getValue());
+		assertEquals(0, basis.getValue());
+	}
+
+	@Test
+	public void skipsCancellingTalentWrites() {
+		final TestTalent talent = new TestTalent("Klettern", 2);
+		talent.getActual().put("temporary:ChoiceOnly", true);
+		final TalentChoice choice = new TalentChoice(talent, 2, false);
+
+		new ChoiceBatch(hero).unapply(choice).apply(choice, false).commit();
+		assertEquals(0, talent.writes);
+		assertEquals(2, talent.getValue());
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.choices;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class LanguageAssignmentTest {
+	private final Object garethi = new Object();
+	private final Object thorwalsch = new Object();
+	private final Object tulamidya = new Object();
+	private final Object kusliker = new Object();
+
+	@Test
+	public void separateLanguages() {
+		final Map<Object, Integer> result = LanguageAssignment.contributions(garethi, thorwalsch, tulamidya, kusliker, 12, 1, 2);
+		assertEquals(4, result.size());
+		assertEquals(11, result.get(garethi));
+		assertEquals(8, result.get(thorwalsch));
+		assertEquals(8, result.get(tulamidya));
+		assertEquals(2, result.get(kusliker));
+	}
+
+	@Test
+	public void teachingLanguageAsMotherTongue() {
+		final Map<Object, Integer> result = LanguageAssignment.contributions(garethi, null, garethi, null, 12, 0, 0);
+		assertEquals(1, result.size());
+		assertEquals(14, result.get(garethi));
+	}
+
+	@Test
+	public void teachingLanguageAsSecondLanguage() {
+		final Map<Object, Integer> result = LanguageAssignment.contributions(garethi, thorwalsch, thorwalsch, null, 12, 0, 0);
+		assertEquals(2, result.size());
+		assertEquals(10, result.get(garethi));
+		assertEquals(8, result.get(thorwalsch));
+	}
+
+	@Test
+	public void noLanguages() {
+		assertTrue(LanguageAssignment.contributions(null, null, null, null, 12, 1, 2).isEmpty());
+		assertTrue(LanguageAssignment.markers(null, null, null, null).isEmpty());
+	}
+
+	@Test
+	public void markersPerLanguage() {
+		final Map<Object, Set<String>> result = LanguageAssignment.markers(garethi, thorwalsch, garethi, kusliker);
+		assertEquals(3, result.size());
+		assertEquals(Set.of("Muttersprache", "Lehrsprache"), result.get(garethi));
+		assertEquals(Set.of("Zweitsprache"), result.get(thorwalsch));
+		assertEquals(Set.of("Muttersprache"), result.get(kusliker));
+	}
+
+	@Test
+	public void reassignmentWritesOnlyDifferences() {
+		final TestTalent mother = new TestTalent("Garethi", Integer.MIN_VALUE);
+		final TestTalent second = new TestTalent("Thorwalsch", 3);
+		final TestTalent teaching = new TestTalent("Tulamidya", Integer.MIN_VALUE);
+		final LanguageAssignment assignment = new LanguageAssignment();
+
+		assignment.begin(12);
+		assignment.setMotherTongue(mother, null);
+		assignment.setSecondLanguage(second);
+		assignment.setTeachingLanguage(teaching);
+		assertEquals(0, mother.writes + second.writes + teaching.writes);
+		assignment.apply();
+		assertEquals(10, mother.getValue());
+		assertEquals(11, second.getValue());
+		assertEquals(8, teaching.getValue());
+		assertTrue(mother.getActual().getBoolOrDefault("Muttersprache", false));
+		assertTrue(teaching.getActual().getBoolOrDefault("Lehrsprache", false));
+
+		assignment.setTeachingLanguage(mother);
+		assertEquals(14, mother.getValue());
+		assertEquals(Integer.MIN_VALUE, teaching.getValue());
+		assertEquals(2, mother.writes);
+		assertEquals(1, second.writes);
+		assertEquals(2, teaching.writes);
+		assertTrue(mother.getActual().getBoolOrDefault("Lehrsprache", false));
+		assertFalse(teaching.getActual().containsKey("Lehrsprache"));
+
+		assignment.setSecondLanguage(null);
+		assertEquals(3, second.getValue());
+		assertFalse(second.getActual().containsKey("Zweitsprache"));
+		assertEquals(2, mother.writes);
+
+		assignment.setLanguageBonus(2);
+		assertEquals(16, mother.getValue());
+		assertEquals(3, mother.writes);
+		assertEquals(2, second.writes);
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.choices;
+
+import dsa41basis.hero.Talent;
+import jsonant.value.JSONObject;
+
+class TestTalent extends Talent {
+	private int value;
+	int writes = 0;
+
+	TestTalent(final String name, final int value) {
+		super(name, null, new JSONObject(null), new JSONObject(null), new JSONObject(null));
+		this.value = value;
+	}
+
+	@Override
+	public int getValue() {
+		return value;
+	}
+
+	@Override
+	public void setValue(final int newVal) {
+		value = newVal;
+		++writes;
+	}
+}
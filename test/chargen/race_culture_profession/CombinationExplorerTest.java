@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.race_culture_profession;
+
+import static chargen.util.JSONFixtures.array;
+import static chargen.util.JSONFixtures.child;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import jsonant.value.JSONObject;
+
+public class CombinationExplorerTest {
+	private JSONObject races;
+	private JSONObject cultures;
+	private JSONObject professions;
+
+	private CombinationExplorer explorer() {
+		return new CombinationExplorer(new CompatibilityIndex(races, cultures, professions), races, cultures, professions);
+	}
+
+	@BeforeEach
+	public void setUp() {
+		races = new JSONObject(null);
+		final JSONObject humanData = child(races, "Mensch");
+		humanData.put("Übliche Kulturen", array(humanData, "Mittelreich"));
+		humanData.put("Mögliche Kulturen", array(humanData, "Thorwal"));
+		child(child(humanData, "Varianten"), "Adlig").put("kombinierbar", true);
+		final JSONObject elfData = child(races, "Elf");
+		elfData.put("Übliche Kulturen", array(elfData, "Auelfen"));
+
+		cultures = new JSONObject(null);
+		final JSONObject middenrealmData = child(cultures, "Mittelreich");
+		middenrealmData.put("Professionen", array(middenrealmData, "Krieger", "Händler"));
+		child(cultures, "Thorwal");
+		final JSONObject elvesData = child(cultures, "Auelfen");
+		elvesData.put("Professionen", array(elvesData, "Krieger"));
+
+		professions = new JSONObject(null);
+		child(professions, "Krieger");
+		final JSONObject merchantData = child(professions, "Händler");
+		child(child(child(child(merchantData, "Voraussetzungen"), "Rassen"), "Muss"), "Mensch");
+	}
+
+	@Test
+	public void countsCompatibleCombinations() {
+		final CombinationExplorer explorer = explorer();
+		// Mensch with and without Adlig: Mittelreich and Thorwal with both professions; Elf: Krieger in every culture
+		assertEquals(2 * 4 + 3, explorer.count());
+		assertTrue(explorer.findDeadEntries().isEmpty());
+		assertFalse(explorer.isTruncated());
+	}
+
+	@Test
+	public void reportsTruncatedVariantSubsets() {
+		final JSONObject variants = child(cultures.getObj("Thorwal"), "Varianten");
+		for (int i = 0; i < 13; ++i) {
+			child(variants, "Variante " + i).put("kombinierbar", true);
+		}
+		final CombinationExplorer explorer = explorer();
+		assertTrue(explorer.isTruncated());
+		assertEquals(1, explorer.getTruncatedChoices().size());
+		assertEquals("Thorwal", explorer.getTruncatedChoices().get(0).name);
+	}
+}
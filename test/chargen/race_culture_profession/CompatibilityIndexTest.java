@@ -0,0 +1,166 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.race_culture_profession;
+
+import static chargen.util.JSONFixtures.array;
+import static chargen.util.JSONFixtures.child;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import chargen.race_culture_profession.RKP.Type;
+import dsatool.util.Tuple;
+import jsonant.value.JSONObject;
+
+public class CompatibilityIndexTest {
+	private JSONObject races;
+	private JSONObject cultures;
+	private JSONObject professions;
+	private CompatibilityIndex index;
+
+	private RKP human;
+	private RKP northerner;
+	private RKP elf;
+	private RKP dwarf;
+	private RKP middenrealm;
+	private RKP city;
+	private RKP thorwal;
+	private RKP elves;
+	private RKP warrior;
+	private RKP merchant;
+
+	@BeforeEach
+	public void setUp() {
+		races = new JSONObject(null);
+		final JSONObject humanData = child(races, "Mensch");
+		humanData.put("Übliche Kulturen", array(humanData, "Mittelreich"));
+		humanData.put("Mögliche Kulturen", array(humanData, "Thorwal"));
+		final JSONObject northernerData = child(child(humanData, "Varianten"), "Nordländer");
+		northernerData.put("Übliche Kulturen", array(northernerData, "Thorwal"));
+		final JSONObject elfData = child(races, "Elf");
+		elfData.put("Übliche Kulturen", array(elfData, "Auelfen"));
+		final JSONObject dwarfData = child(races, "Zwerg");
+		dwarfData.put("Übliche Kulturen", array(dwarfData, "Stadt"));
+		dwarfData.put("Mögliche Kulturen", array(dwarfData, "Stadt"));
+
+		cultures = new JSONObject(null);
+		final JSONObject middenrealmData = child(cultures, "Mittelreich");
+		middenrealmData.put("Professionen", array(middenrealmData, "Krieger"));
+		final JSONObject cityData = child(child(middenrealmData, "Varianten"), "Stadt");
+		cityData.put("Professionen", array(cityData, "Händler"));
+		child(cultures, "Thorwal");
+		final JSONObject elvesData = child(cultures, "Auelfen");
+		elvesData.put("Professionen", array(elvesData, "Krieger"));
+
+		professions = new JSONObject(null);
+		child(professions, "Krieger");
+		final JSONObject merchantData = child(professions, "Händler");
+		child(child(child(child(merchantData, "Voraussetzungen"), "Rassen"), "Muss"), "Mensch");
+
+		index = new CompatibilityIndex(races, cultures, professions);
+
+		human = new RKP(Type.Race, "Mensch", humanData, null);
+		northerner = new RKP(Type.Race, "Nordländer", northernerData, human);
+		elf = new RKP(Type.Race, "Elf", elfData, null);
+		dwarf = new RKP(Type.Race, "Zwerg", dwarfData, null);
+		middenrealm = new RKP(Type.Culture, "Mittelreich", middenrealmData, null);
+		city = new RKP(Type.Culture, "Stadt", cityData, middenrealm);
+		thorwal = new RKP(Type.Culture, "Thorwal", cultures.getObj("Thorwal"), null);
+		elves = new RKP(Type.Culture, "Auelfen", elvesData, null);
+		warrior = new RKP(Type.Profession, "Krieger", professions.getObj("Krieger"), null);
+		merchant = new RKP(Type.Profession, "Händler", merchantData, null);
+	}
+
+	@Test
+	public void culturesFollowRace() {
+		final Tuple<BitSet, BitSet> fromRace = index.getCulturesFromRace(human, null);
+		assertTrue(index.isPossibleCulture(fromRace, middenrealm));
+		assertTrue(index.isPossibleCulture(fromRace, city));
+		assertTrue(index.isPossibleCulture(fromRace, thorwal));
+		assertFalse(index.isPossibleCulture(fromRace, elves));
+		assertTrue(index.isSuggestedCulture(fromRace, middenrealm));
+		assertFalse(index.isSuggestedCulture(fromRace, thorwal));
+	}
+
+	@Test
+	public void raceVariantReplacesSuggestedCultures() {
+		final Tuple<BitSet, BitSet> fromRace = index.getCulturesFromRace(human, List.of(northerner));
+		assertTrue(index.isSuggestedCulture(fromRace, thorwal));
+		assertFalse(index.isSuggestedCulture(fromRace, middenrealm));
+	}
+
+	@Test
+	public void professionsFollowCultureAndRace() {
+		assertTrue(index.isPossibleProfession(human, middenrealm, null, warrior));
+		assertFalse(index.isPossibleProfession(human, middenrealm, null, merchant));
+		assertTrue(index.isPossibleProfession(human, middenrealm, List.of(city), merchant));
+		assertFalse(index.isPossibleProfession(elf, middenrealm, List.of(city), merchant));
+		assertTrue(index.isPossibleProfession(elf, elves, null, warrior));
+	}
+
+	@Test
+	public void racesFollowCultureAndProfession() {
+		assertTrue(index.isPossibleRace(human, middenrealm, warrior, null));
+		assertFalse(index.isPossibleRace(elf, middenrealm, null, null));
+		assertFalse(index.isPossibleRace(elf, null, merchant, null));
+		assertFalse(index.isPossibleRace(elf, null, warrior, merchant));
+		assertTrue(index.isSuggestedRace(human, middenrealm));
+		assertFalse(index.isSuggestedRace(human, thorwal));
+	}
+
+	@Test
+	public void belowAnswersForVariants() {
+		final Tuple<BitSet, BitSet> fromRace = index.getCulturesFromRace(dwarf, null);
+		final Predicate<CompatibilityIndex.Node> suggested = culture -> index.isSuggestedCulture(fromRace, culture);
+		final Predicate<CompatibilityIndex.Node> possible = culture -> index.isPossibleCulture(fromRace, culture);
+		assertFalse(index.isPossibleCulture(fromRace, middenrealm));
+
+		final Tuple<Boolean, Boolean> withSuggestions = index.getBelow(middenrealm, suggested, possible);
+		assertTrue(withSuggestions._1);
+		assertTrue(withSuggestions._2);
+
+		final Tuple<Boolean, Boolean> withoutSuggestions = index.getBelow(middenrealm, _ -> false, possible);
+		assertTrue(withoutSuggestions._1);
+		assertFalse(withoutSuggestions._2);
+
+		assertFalse(index.getBelow(elves, suggested, possible)._1);
+	}
+
+	@Test
+	public void clonedDataSharesNodes() {
+		final RKP first = new RKP(Type.Culture, "Mittelreich", cultures.getObj("Mittelreich").clone(null), null);
+		final RKP second = new RKP(Type.Culture, "Mittelreich", cultures.getObj("Mittelreich").clone(null), null);
+		assertSame(index.node(middenrealm), index.node(first));
+		assertSame(index.node(first), index.node(second));
+
+		final RKP firstVariant = new RKP(Type.Culture, "Stadt", cityData(first), first);
+		final RKP secondVariant = new RKP(Type.Culture, "Stadt", cityData(second), second);
+		assertSame(index.node(city), index.node(firstVariant));
+		assertSame(index.node(firstVariant), index.node(secondVariant));
+		assertTrue(index.isPossibleProfession(human, first, List.of(firstVariant), merchant));
+	}
+
+	private JSONObject cityData(final RKP culture) {
+		return culture.data.getObj("Varianten").getObj("Stadt");
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.race_culture_profession;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class ModificationAccumulatorTest {
+	@Test
+	public void accumulatesPerKey() {
+		final ModificationAccumulator accumulator = new ModificationAccumulator();
+		final int first = accumulator.slot(1, "first");
+		final int second = accumulator.slot(2, "second");
+		assertNotEquals(first, second);
+		assertEquals(first, accumulator.slot(1, "other"));
+		assertEquals("first", accumulator.payload(first));
+
+		accumulator.add(first, 3, 1);
+		accumulator.add(first, -1, 1);
+		accumulator.add(second, 2, 1);
+		assertEquals(2, accumulator.value(first));
+		assertEquals(2, accumulator.count(first));
+		assertEquals(2, accumulator.value(second));
+		assertEquals(1, accumulator.count(second));
+		assertEquals(2, accumulator.size());
+		assertEquals(second, accumulator.find(2));
+		assertEquals(-1, accumulator.find(3));
+		assertEquals(2, accumulator.size());
+	}
+
+	@Test
+	public void keepsSlotsWhenGrowing() {
+		final ModificationAccumulator accumulator = new ModificationAccumulator();
+		for (long key = 0; key < 1000; ++key) {
+			accumulator.add(accumulator.slot(key << 20, null), (int) key, 1);
+		}
+		assertEquals(1000, accumulator.size());
+		for (long key = 0; key < 1000; ++key) {
+			final int slot = accumulator.slot(key << 20, null);
+			assertEquals(key << 20, accumulator.key(slot));
+			assertEquals(key, accumulator.value(slot));
+		}
+		assertEquals(1000, accumulator.size());
+	}
+
+	@Test
+	public void appendsToLists() {
+		final ModificationAccumulator accumulator = new ModificationAccumulator();
+		final int slot = accumulator.slot(7, null);
+		for (int i = 0; i < 10; ++i) {
+			accumulator.append(slot, i * i);
+		}
+		assertEquals(10, accumulator.listSize(slot));
+		for (int i = 0; i < 10; ++i) {
+			assertEquals(i * i, accumulator.listValue(slot, i));
+		}
+	}
+
+	@Test
+	public void clearResetsSlots() {
+		final ModificationAccumulator accumulator = new ModificationAccumulator();
+		final int slot = accumulator.slot(5, "payload");
+		accumulator.add(slot, 4, 2);
+		accumulator.append(slot, 1);
+		accumulator.flag(slot);
+		accumulator.clear();
+
+		assertEquals(0, accumulator.size());
+		final int reused = accumulator.slot(5, null);
+		assertNull(accumulator.payload(reused));
+		assertEquals(0, accumulator.value(reused));
+		assertEquals(0, accumulator.count(reused));
+		assertEquals(0, accumulator.listSize(reused));
+		assertFalse(accumulator.isFlagged(reused));
+		accumulator.flag(reused);
+		assertTrue(accumulator.isFlagged(reused));
+	}
+
+	@Test
+	public void numbersRepresentations() {
+		final ModificationAccumulator accumulator = new ModificationAccumulator();
+		final int mage = accumulator.representation("Mag");
+		final int elf = accumulator.representation("Elf");
+		assertNotEquals(mage, elf);
+		assertEquals(mage, accumulator.representation("Mag"));
+		assertEquals("Elf", accumulator.representationName(elf));
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.race_culture_profession;
+
+import static chargen.util.JSONFixtures.array;
+import static chargen.util.JSONFixtures.child;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import jsonant.value.JSONObject;
+
+public class SpecialCaseTest {
+	@Test
+	public void dataRuleRemovesAndRestoresEntries() {
+		final JSONObject data = new JSONObject(null);
+		data.put("Typ", "Profession");
+		final JSONObject conditions = child(data, "Bedingungen");
+		conditions.put("Rasse", "Elf");
+		conditions.put("Kultur:Modifikation", "Stadt");
+		final JSONObject removed = child(data, "Entfernen");
+		removed.put("Vorteile", array(removed, "Adlige Abstammung"));
+		removed.put("Basiswerte", array(removed, "Sozialstatus"));
+
+		final SpecialCase specialCase = SpecialCase.fromData("Elfische Stadt", data);
+		assertEquals("Profession", specialCase.type);
+		assertArrayEquals(new String[] { "Profession", "Rasse", "Kultur" }, specialCase.inputs);
+
+		final JSONObject hero = new JSONObject(null);
+		final JSONObject biography = child(hero, "Biografie");
+		biography.put("Rasse", "Elf");
+		assertFalse(specialCase.applicable.test(hero));
+		biography.put("Kultur:Modifikation", array(biography, "Stadt"));
+		assertTrue(specialCase.applicable.test(hero));
+
+		final JSONObject unaltered = new JSONObject(null);
+		final JSONObject pros = child(unaltered, "Vorteile");
+		child(pros, "Adlige Abstammung").put("Stufe", 2);
+		child(pros, "Gutaussehend");
+		final JSONObject basicValues = child(unaltered, "Basiswerte");
+		child(basicValues, "Sozialstatus").put("Wert", 7);
+		final JSONObject target = unaltered.clone(null);
+		final JSONObject sharedBasicValues = target.getObj("Basiswerte");
+
+		specialCase.apply.accept(target);
+		assertFalse(target.getObj("Vorteile").containsKey("Adlige Abstammung"));
+		assertTrue(target.getObj("Vorteile").containsKey("Gutaussehend"));
+		assertFalse(target.getObj("Basiswerte").containsKey("Sozialstatus"));
+		assertTrue(sharedBasicValues.containsKey("Sozialstatus"));
+		assertNotSame(sharedBasicValues, target.getObj("Basiswerte"));
+
+		specialCase.unapply.accept(target, unaltered);
+		assertEquals(2, target.getObj("Vorteile").getObj("Adlige Abstammung").getInt("Stufe"));
+		assertEquals(7, target.getObj("Basiswerte").getObj("Sozialstatus").getInt("Wert"));
+	}
+}
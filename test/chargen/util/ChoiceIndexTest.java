@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.util;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import jsonant.value.JSONArray;
+import jsonant.value.JSONObject;
+
+public class ChoiceIndexTest {
+	private static final String NAME = "Begabung für Talentgruppe";
+
+	private static JSONObject entry(final JSONObject parent, final String choice, final String freetext) {
+		final JSONObject result = new JSONObject(parent);
+		if (choice != null) {
+			result.put("Auswahl", choice);
+		}
+		if (freetext != null) {
+			result.put("Freitext", freetext);
+		}
+		return result;
+	}
+
+	private JSONObject section;
+	private JSONArray entries;
+	private JSONObject fighting;
+	private JSONObject nature;
+
+	@BeforeEach
+	public void setUp() {
+		section = new JSONObject(null);
+		entries = new JSONArray(section);
+		fighting = entry(null, "Kampf", "Schwerter");
+		nature = entry(null, "Natur", null);
+		entries.add(fighting.clone(entries));
+		entries.add(nature.clone(entries));
+		section.put(NAME, entries);
+	}
+
+	@Test
+	public void matchesByChoice() {
+		final ChoiceIndex index = new ChoiceIndex(section);
+		assertSame(entries.getObj(1), index.match(NAME, nature, true, false));
+		assertSame(entries.getObj(0), index.match(NAME, entry(null, "Kampf", "Dolche"), true, false));
+		assertNull(index.match(NAME, entry(null, "Gesellschaft", null), true, false));
+		assertNull(index.match("Begabung für Talent", nature, true, false));
+	}
+
+	@Test
+	public void matchesByFreetext() {
+		final ChoiceIndex index = new ChoiceIndex(section);
+		assertSame(entries.getObj(0), index.match(NAME, fighting, true, true));
+		assertNull(index.match(NAME, entry(null, "Kampf", "Dolche"), true, true));
+		assertNull(index.match(NAME, nature, true, true));
+	}
+
+	@Test
+	public void ignoresChoiceWhenNotRequired() {
+		final ChoiceIndex index = new ChoiceIndex(section);
+		assertSame(entries.getObj(0), index.match(NAME, entry(null, "Gesellschaft", "Schwerter"), false, true));
+	}
+
+	@Test
+	public void rebuildsForChangedFlags() {
+		final ChoiceIndex index = new ChoiceIndex(section);
+		assertNull(index.match(NAME, entry(null, "Gesellschaft", "Schwerter"), true, true));
+		assertSame(entries.getObj(0), index.match(NAME, entry(null, "Gesellschaft", "Schwerter"), false, true));
+		assertSame(entries.getObj(1), index.match(NAME, nature, true, false));
+	}
+
+	@Test
+	public void followsAddAndRemove() {
+		final ChoiceIndex index = new ChoiceIndex(section);
+		final JSONObject society = entry(null, "Gesellschaft", null);
+		assertNull(index.match(NAME, society, true, false));
+
+		final JSONObject added = society.clone(entries);
+		entries.add(added);
+		index.add(NAME, added);
+		assertSame(added, index.match(NAME, society, true, false));
+
+		final JSONObject removed = entries.getObj(1);
+		entries.remove(removed);
+		index.remove(NAME, removed);
+		assertNull(index.match(NAME, nature, true, false));
+		assertSame(added, index.match(NAME, society, true, false));
+	}
+
+	@Test
+	public void rebuildsForChangedSection() {
+		final ChoiceIndex index = new ChoiceIndex(section);
+		assertSame(entries.getObj(1), index.match(NAME, nature, true, false));
+
+		final JSONArray replaced = new JSONArray(section);
+		final JSONObject other = nature.clone(replaced);
+		replaced.add(other);
+		section.put(NAME, replaced);
+		assertSame(other, index.match(NAME, nature, true, false));
+
+		final JSONObject added = fighting.clone(replaced);
+		replaced.add(added);
+		assertSame(added, index.match(NAME, fighting, true, true));
+	}
+}
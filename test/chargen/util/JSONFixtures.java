@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017 DSATool team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package chargen.util;
+
+import jsonant.value.JSONArray;
+import jsonant.value.JSONObject;
+
+public final class JSONFixtures {
+	public static JSONArray array(final JSONObject parent, final String... values) {
+		final JSONArray result = new JSONArray(parent);
+		for (final String value : values) {
+			result.add(value);
+		}
+		return result;
+	}
+
+	public static JSONObject child(final JSONObject parent, final String key) {
+		final JSONObject result = new JSONObject(parent);
+		parent.put(key, result);
+		return result;
+	}
+
+	private JSONFixtures() {}
+}